@@ -0,0 +1,27 @@
+package com.tingco.codechallenge.elevator.benchmark;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared set up of the benchmarks
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+final class Benchmarks {
+
+    private static final Logger ELEVATOR_LOGGER = Logger.getLogger(ElevatorImpl.class.getName());
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Turns off the logging of every move, which would otherwise be what is measured
+     */
+    static void quietLogging() {
+        ELEVATOR_LOGGER.setLevel(Level.WARNING);
+    }
+}
@@ -0,0 +1,88 @@
+package com.tingco.codechallenge.elevator.benchmark;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of a busy elevator, the estimated time to a floor and the addressed floor
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorBenchmark {
+
+    private static final int NR_OF_FLOORS_MASK = 1023;
+
+    @Param({"10", "100", "1000"})
+    private int nrOfFloors;
+
+    @Param({"16"})
+    private int nrOfStops;
+
+    private ElevatorImpl elevator;
+    private final int[] toFloors = new int[NR_OF_FLOORS_MASK + 1];
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Benchmarks.quietLogging();
+        Random random = new Random(1);
+        elevator = new ElevatorImpl(0, Elevator.Direction.UP, nrOfFloors / 2, nrOfFloors, 3000, 5000);
+        for (int i = 0; i < nrOfStops; i++) {
+            elevator.moveElevator(random.nextInt(nrOfFloors));
+        }
+        for (int i = 0; i < toFloors.length; i++) {
+            toFloors[i] = random.nextInt(nrOfFloors);
+        }
+    }
+
+    /**
+     * Estimated time for a state version that has already been asked about, the dispatcher's common case
+     */
+    @Benchmark
+    public long calculateTimeToFloor() {
+        return elevator.calculateTimeToFloor(nextFloor(), Elevator.Direction.DOWN);
+    }
+
+    /**
+     * Estimated time right after the elevator changed, so the remembered times are of no use. The request for the
+     * current floor is taken back by leaving, which keeps the stops the same between invocations.
+     */
+    @Benchmark
+    public long calculateTimeToFloorAfterChange() {
+        elevator.moveElevator(elevator.currentFloor());
+        long time = elevator.calculateTimeToFloor(nextFloor(), Elevator.Direction.DOWN);
+        elevator.leave();
+        return time;
+    }
+
+    @Benchmark
+    public int getAddressedFloor() {
+        return elevator.getAddressedFloor();
+    }
+
+    private int nextFloor() {
+        return toFloors[index++ & NR_OF_FLOORS_MASK];
+    }
+}
@@ -0,0 +1,66 @@
+package com.tingco.codechallenge.elevator.benchmark;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An elevator shuttling between the bottom and top floor with listeners waiting on every floor.
+ * The listeners on the end floors move the request to the other end, all other listeners stay registered.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveToNextFloorBenchmark {
+
+    @Param({"10", "100"})
+    private int nrOfFloors;
+
+    @Param({"0", "100", "10000"})
+    private int nrOfListeners;
+
+    private ElevatorImpl elevator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Benchmarks.quietLogging();
+        int topFloor = nrOfFloors - 1;
+        elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, nrOfFloors, 3000, 5000);
+        elevator.addElevatorListener(0, event -> shuttle(event.getElevator(), topFloor));
+        elevator.addElevatorListener(topFloor, event -> shuttle(event.getElevator(), 0));
+        for (int i = 0; i < nrOfListeners; i++) {
+            elevator.addElevatorListener(i % nrOfFloors, event -> false);
+        }
+        elevator.moveElevator(topFloor);
+    }
+
+    @Benchmark
+    public int moveToNextFloor() {
+        return elevator.moveToNextFloor();
+    }
+
+    private static boolean shuttle(Elevator elevator, int toFloor) {
+        elevator.moveElevator(toFloor);
+        elevator.leave();
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package com.tingco.codechallenge.elevator.benchmark;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hall calls dispatched from several threads at once to the same cars. The cars are not driven, so after warm up every
+ * floor is a stop of every car, the busiest state a car can be in.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RequestElevatorBenchmark {
+
+    @Param({"10", "100"})
+    private int nrOfFloors;
+
+    @Param({"1", "4", "16"})
+    private int nrOfElevators;
+
+    private ElevatorControllerImpl controller;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Benchmarks.quietLogging();
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < nrOfElevators; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, nrOfFloors, 3000, 5000));
+        }
+        controller = new ElevatorControllerImpl(new ElevatorDriver() {
+            @Override
+            public void drive(Elevator elevator) {
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, elevators);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        controller.stop();
+    }
+
+    @Benchmark
+    public Elevator requestElevator() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return controller.requestElevator(random.nextInt(nrOfFloors),
+                random.nextBoolean() ? Elevator.Direction.UP : Elevator.Direction.DOWN);
+    }
+}
@@ -0,0 +1,32 @@
+package com.tingco.codechallenge.elevator.api;
+
+/**
+ * Listens to the elevators the controller assigns to calls, e.g. to trace the decisions of a run and compare them with
+ * another run
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface DispatchListener {
+
+    /**
+     * Called when a call has been assigned to an elevator, after the elevator has got the floor as a stop. Called from
+     * the thread making the request without holding any lock.
+     * @param timeMs time of the call
+     * @param floor the floor the elevator was called to
+     * @param direction the direction of the call
+     * @param elevator the elevator assigned
+     * @param timeToFloorMs the time for the elevator to reach the floor as calculated by the elevator
+     */
+    void onDispatch(long timeMs, int floor, Elevator.Direction direction, Elevator elevator, long timeToFloorMs);
+
+    /**
+     * Called when the elevator assigned to a call stops on the floor. Called from the thread driving the elevator.
+     * @param timeMs time of the stop
+     * @param floor the floor the elevator was called to
+     * @param direction the direction of the call
+     * @param elevator the elevator assigned
+     * @param waitMs time from the call to the stop
+     */
+    void onArrival(long timeMs, int floor, Elevator.Direction direction, Elevator elevator, long waitMs);
+}
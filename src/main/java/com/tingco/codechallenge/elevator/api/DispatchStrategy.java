@@ -0,0 +1,23 @@
+package com.tingco.codechallenge.elevator.api;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+/**
+ * How the controller ranks elevators for a hall call, the elevator with the lowest cost gets the call
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface DispatchStrategy {
+
+    /**
+     * Cost of letting an elevator serve a call. Called for every elevator on every call, from many threads at once,
+     * so it must only read the snapshot and return quickly.
+     * @param elevator the elevator
+     * @param snapshot the state of the elevator
+     * @param floor the floor of the call
+     * @param direction the direction of the call
+     * @return the cost, in milliseconds for strategies estimating times
+     */
+    long cost(Elevator elevator, ElevatorSnapshot snapshot, int floor, Elevator.Direction direction);
+}
@@ -1,5 +1,7 @@
 package com.tingco.codechallenge.elevator.api;
 
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
 /**
  * Interface for an elevator object.
  *
@@ -33,6 +35,13 @@ public interface Elevator extends Runnable{
      */
     int getAddressedFloor();
 
+    /**
+     * The latest published state of the elevator. Reading it never blocks the elevator.
+     *
+     * @return an immutable snapshot of the elevator state.
+     */
+    ElevatorSnapshot getSnapshot();
+
     /**
      * Get the Id of this elevator.
      *
@@ -48,6 +57,25 @@ public interface Elevator extends Runnable{
      */
     void moveElevator(int toFloor);
 
+    /**
+     * Command to move the elevator to the given floor, if the elevator is still in the state the decision was based on.
+     *
+     * @param toFloor
+     *            int where to go.
+     * @param expectedStateVersion
+     *            the state version the decision was based on, see {@link #getStateVersion()}
+     * @return the state version with the floor added, or -1 if the state of the elevator has changed and the floor was
+     *         not added
+     */
+    long moveElevator(int toFloor, long expectedStateVersion);
+
+    /**
+     * Version of the elevator state. It changes every time the elevator moves or its stops or passengers change.
+     *
+     * @return the state version
+     */
+    long getStateVersion();
+
     /**
      * Calculates the time for a elevator to reach a certain floor
      * @param toFloor the target floot
@@ -62,6 +90,18 @@ public interface Elevator extends Runnable{
      */
     int moveToNextFloor();
 
+    /**
+     * Time it takes for the elevator to travel between two adjacent floors
+     * @return time in milliseconds
+     */
+    long getSpeedBetweenFloorsMs();
+
+    /**
+     * Time the elevator waits with open doors when it stops on a floor
+     * @return time in milliseconds
+     */
+    long getAvgWaitingTimePerStopMs();
+
     /**
      * Check if the elevator is occupied at the moment.
      *
@@ -82,12 +122,31 @@ public interface Elevator extends Runnable{
      */
     void addElevatorListener(ElevatorListener listener);
 
+    /**
+     * Adds a listener to the elevator stopping on a floor, other stops don't call the listener
+     * @param floor the floor to listen to
+     * @param listener a ElevatorListener
+     */
+    void addElevatorListener(int floor, ElevatorListener listener);
+
     /**
      * Removes a listener to elevator events
      * @param listener a ElevatorListener
      */
     void removeElevatorListener(ElevatorListener listener);
 
+    /**
+     * Adds a listener to every change of state of the elevator
+     * @param listener a ElevatorStateListener
+     */
+    void addStateListener(ElevatorStateListener listener);
+
+    /**
+     * Removes a listener to changes of state
+     * @param listener a ElevatorStateListener
+     */
+    void removeStateListener(ElevatorStateListener listener);
+
     /**
      * Leaves the elevator on current floor
      */
@@ -96,8 +155,22 @@ public interface Elevator extends Runnable{
     /**
      * Enters the elevator at current floor and press target floor
      * @param toFloor the target floor
+     * @return false if the elevator is full and the passenger couldn't enter
+     */
+    boolean enter(int toFloor);
+
+    /**
+     * Serves a request on current floor without anyone entering or leaving, the call of a client outside the elevator
+     * system has been answered
+     */
+    void serveStop();
+
+    /**
+     * Parks the elevator if it has no stops to serve. A parked elevator is not moved until a stop is added to it.
+     * @param onWakeUp invoked once, when the parked elevator gets a stop or is stopped
+     * @return true if the elevator was parked, false if it has stops to serve
      */
-    void enter(int toFloor);
+    boolean park(Runnable onWakeUp);
 
     /**
      * Starts elevator
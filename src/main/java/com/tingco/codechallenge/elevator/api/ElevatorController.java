@@ -1,5 +1,6 @@
 package com.tingco.codechallenge.elevator.api;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -20,6 +21,45 @@ public interface ElevatorController {
      */
     Elevator requestElevator(int toFloor, Elevator.Direction direction);
 
+    /**
+     * Request an elevator from a floor to a destination floor, as entering
+     * the destination on a keypad in the hall. Knowing the destination lets
+     * the controller group passengers going to the same floors in the same
+     * elevator.
+     *
+     * @param fromFloor
+     *            floor the passenger waits on.
+     * @param toFloor
+     *            floor the passenger is going to.
+     * @return The Elevator that is going to pick up the passenger.
+     */
+    Elevator requestDestination(int fromFloor, int toFloor);
+
+    /**
+     * Request elevators to several floors at once. The calls are assigned
+     * together, so that the combined time to serve all of them is the
+     * shortest. Each assignment is committed on its own, a call whose
+     * elevator changed in the meantime is assigned again, so the calls
+     * of a batch are not committed all or nothing.
+     *
+     * @param calls
+     *            the hall calls to serve.
+     * @return The Elevators that are going to the floors, in the order of the
+     *         calls.
+     */
+    List<Elevator> requestElevators(Collection<HallCall> calls);
+
+    /**
+     * Request a stop for the given elevator, as pressing a floor button
+     * inside it.
+     *
+     * @param elevator
+     *            the elevator to stop.
+     * @param toFloor
+     *            the floor to stop on.
+     */
+    void sendElevator(Elevator elevator, int toFloor);
+
     /**
      * A snapshot list of all elevators in the system.
      *
@@ -0,0 +1,21 @@
+package com.tingco.codechallenge.elevator.api;
+
+/**
+ * Moves running elevators floor by floor, either in real time or in simulated time.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface ElevatorDriver {
+
+    /**
+     * Starts driving an elevator, it is moved until it is stopped
+     * @param elevator a started elevator
+     */
+    void drive(Elevator elevator);
+
+    /**
+     * Stops driving all elevators and releases the resources used by the driver
+     */
+    void shutdown();
+}
@@ -0,0 +1,17 @@
+package com.tingco.codechallenge.elevator.api;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+/**
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface ElevatorStateListener {
+    /**
+     * Triggers every time an elevator publishes a new state. Called holding the monitor of the elevator, so it must
+     * return quickly and never block
+     * @param snapshot the new state
+     */
+    void onStateChange(ElevatorSnapshot snapshot);
+
+}
@@ -0,0 +1,50 @@
+package com.tingco.codechallenge.elevator.api;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * A request for an elevator made on a floor, going in a direction
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class HallCall {
+
+    private final int floor;
+    private final Elevator.Direction direction;
+
+    public HallCall(int floor, Elevator.Direction direction) {
+        this.floor = floor;
+        this.direction = direction;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public Elevator.Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HallCall hallCall = (HallCall) o;
+        return floor == hallCall.floor && direction == hallCall.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(floor, direction);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("floor", floor)
+                .add("direction", direction)
+                .toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.tingco.codechallenge.elevator.api;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+/**
+ * Decides where an elevator without stops waits for its next call
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface ParkingPolicy {
+
+    /**
+     * Chooses a floor for an elevator that has run out of stops. Called holding the monitor of the elevator, so it
+     * must return quickly and never block.
+     * @param idle the state of the idle elevator
+     * @return the floor to move to, or -1 to stay on the current floor
+     */
+    int parkingFloor(ElevatorSnapshot idle);
+}
@@ -1,14 +1,35 @@
 package com.tingco.codechallenge.elevator.config;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.tingco.codechallenge.elevator.api.Elevator;
 import com.tingco.codechallenge.elevator.api.ElevatorController;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
 import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.journal.Journal;
+import com.tingco.codechallenge.elevator.journal.MappedJournal;
+import com.tingco.codechallenge.elevator.journal.RecoveredElevator;
+import com.tingco.codechallenge.elevator.journal.SnapshotStore;
+import com.tingco.codechallenge.elevator.metrics.ElevatorMetrics;
+import com.tingco.codechallenge.elevator.metrics.EventRecorder;
+import com.tingco.codechallenge.elevator.service.DemandModel;
+import com.tingco.codechallenge.elevator.service.DemandParkingPolicy;
+import com.tingco.codechallenge.elevator.service.DispatchStrategies;
 import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import com.tingco.codechallenge.elevator.service.ElevatorStateFeed;
+import com.tingco.codechallenge.elevator.service.ExecutorElevatorDriver;
+import com.tingco.codechallenge.elevator.service.ScheduledElevatorDriver;
+import com.tingco.codechallenge.elevator.simulation.SimulationClock;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -31,6 +52,11 @@ import com.google.common.eventbus.EventBus;
 @PropertySources({ @PropertySource("classpath:application.properties") })
 public class ElevatorApplication {
 
+    /**
+     * Events the recorder holds before it drops them
+     */
+    private static final int EVENT_BUFFER_SIZE = 1 << 16;
+
     @Value("${com.tingco.elevator.numberofelevators}")
     private int numberOfElevators;
 
@@ -42,6 +68,49 @@ public class ElevatorApplication {
 
     @Value("${com.tingco.elevator.average.waiting.time.per.stop.ms}")
     private int averageWaitingTimePerStopMs;
+
+    @Value("${com.tingco.elevator.capacity:2147483647}")
+    private int capacity;
+
+    @Value("${com.tingco.elevator.dispatch.strategy:eta-greedy}")
+    private String dispatchStrategy;
+
+    @Value("${com.tingco.elevator.driver:threads}")
+    private String driver;
+
+    @Value("${com.tingco.elevator.scheduler.threads:2}")
+    private int schedulerThreads;
+
+    @Value("${com.tingco.elevator.feed.threads:8}")
+    private int feedThreads;
+
+    @Value("${com.tingco.elevator.feed.queue.size:1024}")
+    private int feedQueueSize;
+
+    @Value("${com.tingco.elevator.feed.stall.timeout.ms:10000}")
+    private long feedStallTimeoutMs;
+
+    @Value("${com.tingco.elevator.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${com.tingco.elevator.journal.directory:journal}")
+    private String journalDirectory;
+
+    @Value("${com.tingco.elevator.journal.segment.size:1048576}")
+    private int journalSegmentSize;
+
+    @Value("${com.tingco.elevator.journal.flush.interval.ms:50}")
+    private long journalFlushIntervalMs;
+
+    @Value("${com.tingco.elevator.snapshot.interval.ms:60000}")
+    private long snapshotIntervalMs;
+
+    @Value("${com.tingco.elevator.parking.enabled:false}")
+    private boolean parkingEnabled;
+
+    @Value("${com.tingco.elevator.parking.slot.minutes:15}")
+    private long parkingSlotMinutes;
+
     /**
      * Start method that will be invoked when starting the Spring context.
      *
@@ -72,13 +141,155 @@ public class ElevatorApplication {
         return new AsyncEventBus(Executors.newCachedThreadPool());
     }
 
+    /**
+     * Create the driver moving the elevators. Either one thread per elevator ("threads") or all elevators scheduled
+     * on a small shared thread pool ("scheduled").
+     *
+     * @return ElevatorDriver for the elevators
+     */
+    @Bean
+    public ElevatorDriver elevatorDriver() {
+        if ("scheduled".equals(driver)) {
+            return new ScheduledElevatorDriver(Executors.newScheduledThreadPool(schedulerThreads));
+        }
+        return new ExecutorElevatorDriver(taskExecutor());
+    }
+
+    /**
+     * Create the latency histograms of the elevators.
+     *
+     * @return ElevatorMetrics of all elevators
+     */
+    @Bean
+    public ElevatorMetrics elevatorMetrics() {
+        return new ElevatorMetrics(numberOfElevators, numberOfFloors);
+    }
+
+    /**
+     * Create the recorder writing the moves of the elevators to the log on a background thread.
+     *
+     * @return EventRecorder of all elevators
+     */
+    @Bean(destroyMethod = "shutdown")
+    public EventRecorder eventRecorder() {
+        return new EventRecorder(EVENT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create the journal of the changes of the elevators, replayed on startup. Keeps nothing unless enabled.
+     *
+     * @return Journal of all elevators
+     */
+    @Bean(destroyMethod = "close")
+    public Journal journal() {
+        if (!journalEnabled) {
+            return Journal.NONE;
+        }
+        return new MappedJournal(Paths.get(journalDirectory), journalSegmentSize, journalFlushIntervalMs);
+    }
+
+    /**
+     * Create the store of the snapshots of the elevators, kept next to the journal.
+     *
+     * @return SnapshotStore of all elevators
+     */
+    @Bean
+    public SnapshotStore snapshotStore() {
+        return new SnapshotStore(Paths.get(journalDirectory), numberOfFloors);
+    }
+
+    /**
+     * Create the thread writing snapshots of the elevators while the journal is enabled.
+     *
+     * @return Executor writing the snapshots
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService snapshotExecutor() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        if (journalEnabled) {
+            executor.scheduleWithFixedDelay(() -> snapshotStore().writeQuietly(elevatorController().getElevators(), journal()),
+                    snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        return executor;
+    }
+
+    /**
+     * Create the hall call demand by time of day, learned from the calls.
+     *
+     * @return DemandModel of all floors
+     */
+    @Bean
+    public DemandModel demandModel() {
+        return new DemandModel(numberOfFloors, TimeUnit.MINUTES.toMillis(parkingSlotMinutes));
+    }
+
     @Bean
     ElevatorController elevatorController(){
+        Map<Integer, RecoveredElevator> recovered = journalEnabled
+                ? snapshotStore().recover()
+                : Collections.<Integer, RecoveredElevator>emptyMap();
         List<Elevator> elevators = new ArrayList<>();
         for(int i = 0; i < numberOfElevators; i++){
-            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, numberOfFloors, speedBetweenFloorsMs, averageWaitingTimePerStopMs));
+            ElevatorImpl elevator = new ElevatorImpl(i, Elevator.Direction.NONE, 0, numberOfFloors, speedBetweenFloorsMs, averageWaitingTimePerStopMs);
+            RecoveredElevator state = recovered.get(i);
+            if (state != null) {
+                elevator.restore(state.getCurrentFloor(), state.getDirection(), state.getNrOfPassengers(), state.getRequests(),
+                        state.getStateVersion());
+            }
+            elevator.setCapacity(capacity);
+            elevator.setMetrics(elevatorMetrics(), SimulationClock.SYSTEM);
+            elevator.setEventRecorder(eventRecorder());
+            elevator.setJournal(journal());
+            elevators.add(elevator);
         }
-        return  new ElevatorControllerImpl(taskExecutor(), elevators);
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(elevatorDriver(), elevators);
+        elevatorController.setMetrics(elevatorMetrics(), SimulationClock.SYSTEM);
+        elevatorController.setDispatchStrategy(DispatchStrategies.create(dispatchStrategy, numberOfElevators, numberOfFloors));
+        if (parkingEnabled) {
+            elevatorController.setDemandModel(demandModel(), SimulationClock.SYSTEM);
+            DemandParkingPolicy parkingPolicy = new DemandParkingPolicy(demandModel(), elevators, SimulationClock.SYSTEM);
+            for (Elevator elevator : elevators) {
+                ((ElevatorImpl) elevator).setParkingPolicy(parkingPolicy);
+            }
+        }
+        return elevatorController;
+    }
+
+    /**
+     * Create the thread pool sending state changes to the subscribers of the feed. The threads are started up front
+     * and the queue is bounded, so offering a state never starts a thread, and a subscriber that can't be queued is
+     * evicted.
+     *
+     * @return Executor thread pool
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService feedExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(feedThreads, feedThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(feedQueueSize));
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+
+    /**
+     * Create the thread closing the connections of subscribers evicted from the feed. Closing may wait for a send
+     * that is blocked on the connection.
+     *
+     * @return Executor thread
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService feedEvictionExecutor() {
+        return Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Create the feed pushing state changes of the elevators to subscribers.
+     *
+     * @return ElevatorStateFeed of all elevators
+     */
+    @Bean
+    public ElevatorStateFeed elevatorStateFeed() {
+        return new ElevatorStateFeed(elevatorController().getElevators(), feedExecutor(), feedEvictionExecutor(),
+                feedStallTimeoutMs);
     }
 
 }
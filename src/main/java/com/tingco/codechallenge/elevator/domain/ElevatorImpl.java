@@ -4,13 +4,18 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.tingco.codechallenge.elevator.api.Elevator;
 import com.tingco.codechallenge.elevator.api.ElevatorListener;
+import com.tingco.codechallenge.elevator.api.ElevatorStateListener;
+import com.tingco.codechallenge.elevator.api.ParkingPolicy;
+import com.tingco.codechallenge.elevator.journal.Journal;
+import com.tingco.codechallenge.elevator.journal.RecordType;
+import com.tingco.codechallenge.elevator.metrics.ElevatorMetrics;
+import com.tingco.codechallenge.elevator.metrics.EventRecorder;
+import com.tingco.codechallenge.elevator.metrics.EventType;
+import com.tingco.codechallenge.elevator.simulation.SimulationClock;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
 
 /**
  * Simple elevator algorithm
@@ -18,14 +23,15 @@ import java.util.logging.Logger;
  * If the elevator does not receive any more requests it doesn't move.
  * When a request comes for an elevator on a specific floor, the elevator with the estimated shortest time to reach the
  * floor is chosen.
+ * All changes are made holding the monitor of the elevator and published as an immutable {@link ElevatorSnapshot},
+ * which is what readers see. State listeners are called with every published snapshot while the monitor is held, so
+ * they must not block. Stop listeners are called, and changes journaled, after the monitor has been released.
  *
  * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
  * @since 1.0.0
  */
 public class ElevatorImpl implements Elevator, Runnable {
 
-    private static final Logger LOGGER = Logger.getLogger(ElevatorImpl.class.getName());
-
     private int id;
     private int nrOfPassengers = 0;
     private Direction direction;
@@ -33,9 +39,33 @@ public class ElevatorImpl implements Elevator, Runnable {
     private int nrOfFloors;
     private long speedBetweenFloorsMs;
     private long avgWaitingTimePerStopMs;
-    private int[] elevatorStops;
-    private List<ElevatorListener> listeners = Collections.synchronizedList(new ArrayList<>());
+    private ElevatorStops elevatorStops;
+    private int capacity = Integer.MAX_VALUE;
+    private volatile ParkingPolicy parkingPolicy;
+    private int parkingFloor = -1;
+    private boolean placed = false;
+    private final FloorListeners listeners;
+    private final Rides rides;
+    private final StopEvent stopEvent;
+    private final List<ElevatorStateListener> stateListeners = new CopyOnWriteArrayList<>();
+    private volatile ElevatorMetrics metrics;
+    private volatile SimulationClock clock = SimulationClock.SYSTEM;
+    private volatile EventRecorder eventRecorder;
+    private volatile Journal journal = Journal.NONE;
+    /**
+     * Restored requests per floor, or null if there are none. Whoever made them is gone, so they are served when the
+     * elevator stops on their floor.
+     */
+    private int[] restoredStops;
+    /**
+     * Restored passengers, whose destinations are among the restored stops
+     */
+    private int restoredPassengers;
     private boolean isRunning = false;
+    private long stateVersion = 0;
+    private final EtaCache etaCache;
+    private volatile ElevatorSnapshot snapshot;
+    private Runnable wakeUpHandler;
 
     public ElevatorImpl(int id, Direction direction, int currentFloor, int nrOfFloors, long speedBetweenFloorsMs, long avgWaitingTimePerStopMs) {
         this.id = id;
@@ -44,7 +74,12 @@ public class ElevatorImpl implements Elevator, Runnable {
         this.nrOfFloors = nrOfFloors;
         this.speedBetweenFloorsMs = speedBetweenFloorsMs;
         this.avgWaitingTimePerStopMs = avgWaitingTimePerStopMs;
-        this.elevatorStops = new int[nrOfFloors];
+        this.elevatorStops = new ElevatorStops(nrOfFloors);
+        this.etaCache = new EtaCache(nrOfFloors);
+        this.listeners = new FloorListeners(nrOfFloors);
+        this.rides = new Rides(nrOfFloors);
+        this.stopEvent = new StopEvent(currentFloor, this);
+        this.snapshot = createSnapshot();
     }
 
     @Override
@@ -62,62 +97,33 @@ public class ElevatorImpl implements Elevator, Runnable {
 
     @Override
     public String toString() {
+        ElevatorSnapshot snapshot = this.snapshot;
         return MoreObjects.toStringHelper(this)
                 .add("id", id)
-                .add("nrOfPassengers", nrOfPassengers)
-                .add("direction", direction)
-                .add("currentFloor", currentFloor)
+                .add("nrOfPassengers", snapshot.getNrOfPassengers())
+                .add("direction", snapshot.getDirection())
+                .add("currentFloor", snapshot.getCurrentFloor())
                 .add("nrOfFloors", nrOfFloors)
                 .add("speedBetweenFloorsMs", speedBetweenFloorsMs)
                 .add("avgWaitingTimePerStopMs", avgWaitingTimePerStopMs)
-                .add("isRunning", isRunning)
+                .add("isRunning", snapshot.isRunning())
+                .add("stateVersion", snapshot.getStateVersion())
                 .toString();
     }
 
     @Override
-    public Direction getDirection() {
-        return direction;
+    public ElevatorSnapshot getSnapshot() {
+        return snapshot;
     }
 
     @Override
-    public synchronized int getAddressedFloor() {
-        int addressedFloor;
-        switch (direction) {
-            case UP:
-                if ((addressedFloor = nextStopUp()) > -1) {
-                    return addressedFloor;
-                }
-
-                if ((addressedFloor = nextStopDown()) > -1) {
-                    return addressedFloor;
-
-                }
-                return currentFloor;
-            case DOWN:
-                if ((addressedFloor = nextStopDown()) > -1) {
-                    return addressedFloor;
-                }
-
-                if ((addressedFloor = nextStopUp()) > -1) {
-                    return addressedFloor;
-                }
-
-                return currentFloor;
-            case NONE:
-                int nextStopUp = nextStopUp();
-                int nextStopDown = nextStopDown();
-
-                if (nextStopUp > -1) {
-                    return (nextStopDown == -1) ? nextStopUp : (nextStopDown < nextStopUp) ? nextStopDown : nextStopUp;
-                }
-
-                if (nextStopDown > -1) {
-                    return nextStopDown;
-                }
-                return currentFloor;
+    public Direction getDirection() {
+        return snapshot.getDirection();
+    }
 
-        }
-        return currentFloor;
+    @Override
+    public int getAddressedFloor() {
+        return snapshot.getAddressedFloor();
     }
 
     @Override
@@ -126,70 +132,120 @@ public class ElevatorImpl implements Elevator, Runnable {
     }
 
     @Override
-    public synchronized void moveElevator(int toFloor) {
-        elevatorStops[toFloor] = elevatorStops[toFloor] + 1;
+    public void moveElevator(int toFloor) {
+        Runnable wakeUp;
+        long version;
+        synchronized (this) {
+            elevatorStops = elevatorStops.increment(toFloor);
+            stopParking();
+            publish();
+            version = stateVersion;
+            wakeUp = unpark();
+        }
+        wakeUp.run();
+        journal.append(RecordType.MOVE_ELEVATOR, id, version, toFloor, 0);
     }
 
     @Override
-    public synchronized long calculateTimeToFloor(int toFloor, Direction direction) {
-        switch (this.direction) {
-            case UP:
-                if (direction.equals(Direction.DOWN)) {
-                    return calculateTimeGoingUp(currentFloor, lastStopUp()) + calculateTimeGoingDown(lastStopUp(), toFloor);
-                }
-                return calculateTimeGoingUp(currentFloor, toFloor);
-            case DOWN:
-                if (direction.equals(Direction.UP)) {
-                    return calculateTimeGoingDown(currentFloor, lastStopDown()) + calculateTimeGoingUp(lastStopDown(), toFloor);
-                }
-                return calculateTimeGoingDown(currentFloor, toFloor);
-            case NONE:
-                if (toFloor >= currentFloor) {
-                    return calculateTimeGoingUp(currentFloor, toFloor);
-                }
-                return calculateTimeGoingDown(currentFloor, toFloor);
+    public long moveElevator(int toFloor, long expectedStateVersion) {
+        Runnable wakeUp;
+        long version;
+        synchronized (this) {
+            if (stateVersion != expectedStateVersion) {
+                return -1;
+            }
+            elevatorStops = elevatorStops.increment(toFloor);
+            stopParking();
+            publish();
+            version = stateVersion;
+            wakeUp = unpark();
         }
-        return Long.MAX_VALUE;
+        wakeUp.run();
+        journal.append(RecordType.MOVE_ELEVATOR, id, version, toFloor, 0);
+        return version;
     }
 
     @Override
-    public synchronized int moveToNextFloor() {
-
-        int addressedFloor = getAddressedFloor();
+    public long getStateVersion() {
+        return snapshot.getStateVersion();
+    }
 
-        if (isBelow(addressedFloor)) {
-            this.direction = Direction.UP;
-            currentFloor++;
-        } else if (isAbove(addressedFloor)) {
-            this.direction = Direction.DOWN;
-            currentFloor--;
-        }
+    @Override
+    public long calculateTimeToFloor(int toFloor, Direction direction) {
+        return snapshot.calculateTimeToFloor(toFloor, direction);
+    }
 
-        if (isOnSameFloor(addressedFloor)) {
-            if (direction == Direction.UP && nextStopUp() > -1) {
+    @Override
+    public int moveToNextFloor() {
+        int floor;
+        boolean stopped;
+        Direction stoppedDirection;
+        long version;
+        int servedRestoredStops = 0;
+        int leavingRestoredPassengers = 0;
+        synchronized (this) {
+            int addressedFloor = snapshot.getAddressedFloor();
+
+            if (isBelow(addressedFloor)) {
                 this.direction = Direction.UP;
-            } else if (direction == Direction.DOWN && nextStopDown() > -1) {
+                currentFloor++;
+            } else if (isAbove(addressedFloor)) {
                 this.direction = Direction.DOWN;
-            } else {
-                this.direction = Direction.NONE;
+                currentFloor--;
+            }
+            if (currentFloor == parkingFloor && !hasStops()) {
+                parkingFloor = -1;
             }
 
-            List<ElevatorListener> toRemove = new ArrayList<>();
-            for (ElevatorListener listener : listeners) {
-                if (listener.onStopEvent(new StopEvent(currentFloor, this))) {
-                    toRemove.add(listener);
+            stopped = isOnSameFloor(addressedFloor);
+            if (stopped && restoredStops != null && restoredStops[currentFloor] > 0) {
+                servedRestoredStops = Math.min(restoredStops[currentFloor], elevatorStops.get(currentFloor));
+                leavingRestoredPassengers = Math.min(restoredPassengers, servedRestoredStops);
+                serveRestoredStops(servedRestoredStops, leavingRestoredPassengers);
+            }
+            if (stopped) {
+                if (direction == Direction.UP && elevatorStops.nextStopFrom(currentFloor) > -1) {
+                    this.direction = Direction.UP;
+                } else if (direction == Direction.DOWN && elevatorStops.previousStopFrom(currentFloor) > -1) {
+                    this.direction = Direction.DOWN;
+                } else {
+                    this.direction = Direction.NONE;
                 }
             }
-            listeners.removeAll(toRemove);
+            publish();
+            floor = currentFloor;
+            stoppedDirection = direction;
+            version = stateVersion;
+            EventRecorder eventRecorder = this.eventRecorder;
+            if (eventRecorder != null) {
+                eventRecorder.record(EventType.ELEVATOR_MOVED, id, currentFloor, direction.ordinal(), nrOfPassengers);
+            }
+        }
+
+        if (stopped) {
+            journal.append(RecordType.STOP, id, version, floor, stoppedDirection.ordinal());
+            for (int i = 0; i < servedRestoredStops; i++) {
+                journal.append((i < leavingRestoredPassengers) ? RecordType.LEAVE : RecordType.SERVE_STOP, id, version, floor, 0);
+            }
+            stopEvent.setFloor(floor);
+            listeners.fire(stopEvent);
         }
+        return floor;
+    }
 
-        LOGGER.info(String.format("Elevator=%s, is on floor=%d with direction=%s and nr of passengers=%d", id, currentFloor, direction, nrOfPassengers));
-        return currentFloor;
+    @Override
+    public long getSpeedBetweenFloorsMs() {
+        return speedBetweenFloorsMs;
+    }
+
+    @Override
+    public long getAvgWaitingTimePerStopMs() {
+        return avgWaitingTimePerStopMs;
     }
 
     @Override
     public int currentFloor() {
-        return currentFloor;
+        return snapshot.getCurrentFloor();
     }
 
     @Override
@@ -197,54 +253,229 @@ public class ElevatorImpl implements Elevator, Runnable {
         listeners.add(listener);
     }
 
+    @Override
+    public void addElevatorListener(int floor, ElevatorListener listener) {
+        listeners.add(floor, listener);
+    }
+
     @Override
     public void removeElevatorListener(ElevatorListener listener) {
         listeners.remove(listener);
     }
 
     @Override
-    public synchronized void leave() {
-        elevatorStops[currentFloor] = elevatorStops[currentFloor] - 1;
-        nrOfPassengers--;
+    public void addStateListener(ElevatorStateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    @Override
+    public void removeStateListener(ElevatorStateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    @Override
+    public void leave() {
+        int floor;
+        long version;
+        int fromFloor = Rides.NO_RIDE;
+        long enteredMs = 0;
+        synchronized (this) {
+            floor = currentFloor;
+            elevatorStops = elevatorStops.decrement(currentFloor);
+            if (elevatorStops.getDestinations(currentFloor) > 0) {
+                elevatorStops = elevatorStops.removeDestination(currentFloor);
+                int ride = rides.leave(currentFloor);
+                if (ride != Rides.NO_RIDE) {
+                    fromFloor = rides.getFromFloor(ride);
+                    enteredMs = rides.getEnteredMs(ride);
+                }
+            }
+            nrOfPassengers--;
+            publish();
+            version = stateVersion;
+        }
+        journal.append(RecordType.LEAVE, id, version, floor, 0);
+        ElevatorMetrics metrics = this.metrics;
+        if (metrics != null && fromFloor != Rides.NO_RIDE) {
+            Direction direction = (floor < fromFloor) ? Direction.DOWN : Direction.UP;
+            metrics.recordTravelTime(id, fromFloor, direction, clock.now() - enteredMs);
+        }
     }
 
     @Override
-    public synchronized void enter(int toFloor) {
-        elevatorStops[currentFloor] = elevatorStops[currentFloor] - 1;
-        elevatorStops[toFloor] = elevatorStops[toFloor] + 1;
-        nrOfPassengers++;
+    public boolean enter(int toFloor) {
+        Runnable wakeUp;
+        int fromFloor;
+        long version;
+        synchronized (this) {
+            if (nrOfPassengers >= capacity) {
+                return false;
+            }
+            fromFloor = currentFloor;
+            elevatorStops = elevatorStops.decrement(currentFloor).increment(toFloor).addDestination(toFloor);
+            nrOfPassengers++;
+            if (metrics != null) {
+                rides.enter(fromFloor, toFloor, clock.now());
+            }
+            publish();
+            version = stateVersion;
+            wakeUp = unpark();
+        }
+        wakeUp.run();
+        journal.append(RecordType.ENTER, id, version, fromFloor, toFloor);
+        return true;
+    }
+
+    /**
+     * Limits the number of passengers in the elevator
+     * @param capacity the maximum number of passengers
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity=%d must be at least 1", capacity));
+        }
+        this.capacity = capacity;
+        publish();
+    }
+
+    /**
+     * Records travel times from entering the elevator to leaving it on the target floor
+     * @param metrics where to record, or null to not record
+     * @param clock the clock to measure with
+     */
+    public void setMetrics(ElevatorMetrics metrics, SimulationClock clock) {
+        this.clock = clock;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void serveStop() {
+        int floor;
+        long version;
+        synchronized (this) {
+            floor = currentFloor;
+            if (elevatorStops.get(currentFloor) == 0) {
+                return;
+            }
+            elevatorStops = elevatorStops.decrement(currentFloor);
+            publish();
+            version = stateVersion;
+        }
+        journal.append(RecordType.SERVE_STOP, id, version, floor, 0);
+    }
+
+    /**
+     * Journals the changes of the elevator
+     * @param journal where to append the changes
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Restores the state of the elevator, e.g. from a journal, before it is started. The passengers and callers of the
+     * restored requests are gone, so the restored requests of a floor are served when the elevator stops there, and
+     * the restored passengers leave on the first of those stops. Passengers beyond the restored requests have no
+     * destination and are not restored.
+     * @param currentFloor the floor the elevator is on
+     * @param direction the direction of the elevator
+     * @param nrOfPassengers the passengers in the elevator
+     * @param requests the number of requests per floor
+     * @param stateVersion the state version of the restored state, the versions of later changes continue from it
+     */
+    public synchronized void restore(int currentFloor, Direction direction, int nrOfPassengers, int[] requests, long stateVersion) {
+        if (requests.length != nrOfFloors) {
+            throw new IllegalArgumentException(String.format("Requests for %d floors, elevator has %d", requests.length, nrOfFloors));
+        }
+        ElevatorStops stops = new ElevatorStops(nrOfFloors);
+        int nrOfRequests = 0;
+        for (int floor = 0; floor < requests.length; floor++) {
+            for (int i = 0; i < requests[floor]; i++) {
+                stops = stops.increment(floor);
+            }
+            nrOfRequests += requests[floor];
+        }
+        this.currentFloor = currentFloor;
+        this.direction = direction;
+        this.nrOfPassengers = Math.min(nrOfPassengers, nrOfRequests);
+        this.elevatorStops = stops;
+        rides.clear();
+        this.restoredStops = (nrOfRequests > 0) ? requests.clone() : null;
+        this.restoredPassengers = this.nrOfPassengers;
+        stopParking();
+        this.stateVersion = Math.max(this.stateVersion, stateVersion - 1);
+        publish();
+    }
+
+    /**
+     * Records the moves of the elevator
+     * @param eventRecorder where to record, or null to not record
+     */
+    public void setEventRecorder(EventRecorder eventRecorder) {
+        this.eventRecorder = eventRecorder;
     }
 
     @Override
     public int getNrOfPassengers() {
-        return nrOfPassengers;
+        return snapshot.getNrOfPassengers();
     }
 
     @Override
     public boolean isBusy() {
-        return isRunning;
+        return isRunning();
     }
 
 
+    /**
+     * Moves the elevator to a floor chosen by the policy when it runs out of stops
+     * @param parkingPolicy the policy, or null to stay where the last stop was
+     */
+    public void setParkingPolicy(ParkingPolicy parkingPolicy) {
+        this.parkingPolicy = parkingPolicy;
+    }
+
     @Override
-    public void start() {
+    public synchronized boolean park(Runnable onWakeUp) {
+        if (hasStops() || moveToParkingFloor()) {
+            return false;
+        }
+        if (direction != Direction.NONE) {
+            direction = Direction.NONE;
+            publish();
+        }
+        this.wakeUpHandler = onWakeUp;
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
         this.isRunning = true;
+        publish();
     }
 
     @Override
     public void stop() {
-        this.isRunning = false;
+        Runnable wakeUp;
+        synchronized (this) {
+            this.isRunning = false;
+            publish();
+            wakeUp = unpark();
+        }
+        wakeUp.run();
     }
 
     @Override
     public boolean isRunning() {
-        return isRunning;
+        return snapshot.isRunning();
     }
 
     @Override
     public void run() {
         try {
-            while (isRunning) {
+            while (isRunning()) {
+                if (!awaitStops()) {
+                    return;
+                }
 
                 int addressedFloor = getAddressedFloor();
                 int nextFloor = moveToNextFloor();
@@ -258,151 +489,117 @@ public class ElevatorImpl implements Elevator, Runnable {
         }
     }
 
-    private boolean isBelow(int floor) {
-        return currentFloor < floor;
-    }
-
-    private boolean isAbove(int floor) {
-        return currentFloor > floor;
-    }
-
-    private boolean isOnSameFloor(int floor) {
-        return currentFloor == floor;
-    }
-
-    private int nextStopUp() {
-        for (int i = currentFloor; i < nrOfFloors; i++) {
-            if (elevatorStops[i] > 0) {
-                return i;
+    /**
+     * Blocks the elevator thread while the elevator is running without any stops to serve
+     * @return false if the elevator was stopped while waiting
+     */
+    private synchronized boolean awaitStops() throws InterruptedException {
+        while (isRunning && !hasStops() && !moveToParkingFloor()) {
+            if (direction != Direction.NONE) {
+                direction = Direction.NONE;
+                publish();
             }
+            wait();
         }
-        return -1;
+        return isRunning;
     }
 
-    private int lastStopUp() {
-        int lastStop = 0;
-        for (int i = lastStop; i < nrOfFloors; i++) {
-            if (elevatorStops[i] > 0) {
-                lastStop = i;
-            }
+    /**
+     * Asks the parking policy for a floor once the elevator is out of stops, must be called holding the monitor
+     * @return true if the elevator is moving to a parking floor
+     */
+    private boolean moveToParkingFloor() {
+        if (parkingFloor > -1) {
+            return true;
         }
-        return lastStop;
-    }
-
-    private int nextStopDown() {
-        for (int i = currentFloor; i >= 0; i--) {
-            if (elevatorStops[i] > 0) {
-                return i;
-            }
+        ParkingPolicy policy = parkingPolicy;
+        if (placed || policy == null) {
+            return false;
         }
-        return -1;
-    }
-
-    private int lastStopDown() {
-        int lastStop = nrOfFloors - 1;
-        for (int i = lastStop; i >= 0; i--) {
-            if (elevatorStops[i] > 0) {
-                lastStop = i;
-            }
+        placed = true;
+        int floor = policy.parkingFloor(snapshot);
+        if (floor < 0 || floor == currentFloor) {
+            return false;
+        }
+        parkingFloor = floor;
+        publish();
+        return true;
+    }
+
+    /**
+     * Cancels parking when the elevator gets a stop, must be called holding the monitor
+     */
+    private void stopParking() {
+        parkingFloor = -1;
+        placed = false;
+    }
+
+    /**
+     * Wakes up a parked elevator, must be called holding the monitor
+     * @return the wake up handler of the driver, to be run after the monitor is released
+     */
+    private Runnable unpark() {
+        notifyAll();
+        Runnable wakeUp = wakeUpHandler;
+        wakeUpHandler = null;
+        return (wakeUp == null) ? () -> {} : wakeUp;
+    }
+
+    /**
+     * Publishes the state as a new version, must be called holding the monitor. The stops are immutable, so the
+     * snapshot shares them with the later versions instead of copying them. State listeners are called in the
+     * order of the versions.
+     */
+    private void publish() {
+        stateVersion++;
+        snapshot = createSnapshot();
+        for (ElevatorStateListener listener : stateListeners) {
+            listener.onStateChange(snapshot);
         }
-        return lastStop;
     }
 
-    private long calculateTimeGoingUp(int fromFloor, int toFloor) {
-        int[] stops = Arrays.copyOf(elevatorStops, elevatorStops.length);
-        int lastStopUp = lastStopUpStartingFrom(fromFloor, stops);
-
-        lastStopUp = (toFloor > lastStopUp) ? toFloor : lastStopUp;
-
-        long totalTime = 0;
+    private ElevatorSnapshot createSnapshot() {
+        return new ElevatorSnapshot(id, stateVersion, direction, currentFloor, nrOfPassengers, isRunning, elevatorStops,
+                capacity, parkingFloor, speedBetweenFloorsMs, avgWaitingTimePerStopMs, etaCache);
+    }
 
-        if (stops[toFloor] == 0) {
-            totalTime = avgWaitingTimePerStopMs;
+    /**
+     * Serves the restored requests of the current floor, must be called holding the monitor
+     */
+    private void serveRestoredStops(int served, int leaving) {
+        for (int i = 0; i < served; i++) {
+            elevatorStops = elevatorStops.decrement(currentFloor);
         }
-
-        totalTime += totalTimeUp(fromFloor, lastStopUp, stops);
-
-        if (toFloor > fromFloor) {
-            return totalTime;
+        nrOfPassengers -= leaving;
+        restoredPassengers -= leaving;
+        restoredStops[currentFloor] = 0;
+        if (isEmpty(restoredStops)) {
+            restoredStops = null;
         }
-
-        int lastStopDown = lastStopDownStartingFrom(lastStopUp, stops);
-        lastStopDown = (toFloor < lastStopDown) ? toFloor : lastStopDown;
-
-        totalTime += totalTimeDown(lastStopUp, lastStopDown, stops);
-
-        return totalTime;
     }
 
-    private long totalTimeUp(int from, int to, int[] stops) {
-        long totalTime = 0;
-        for (int i = from; i <= to; i++) {
-            if (stops[i] > 0) {
-                totalTime += avgWaitingTimePerStopMs;
-                stops[i] = stops[i] - 1;
+    private static boolean isEmpty(int[] counts) {
+        for (int count : counts) {
+            if (count > 0) {
+                return false;
             }
-            totalTime += speedBetweenFloorsMs;
         }
-        return totalTime;
+        return true;
     }
 
-    private long totalTimeDown(int from, int to, int[] stops) {
-        long totalTime = 0;
-        for (int i = from; i >= to; i--) {
-            if (stops[i] > 0) {
-                totalTime += avgWaitingTimePerStopMs;
-                stops[i] = stops[i] - 1;
-            }
-            totalTime += speedBetweenFloorsMs;
-        }
-
-        return totalTime;
+    private boolean hasStops() {
+        return !elevatorStops.isEmpty();
     }
 
-    private long calculateTimeGoingDown(int fromFloor, int toFloor) {
-        int[] stops = Arrays.copyOf(elevatorStops, elevatorStops.length);
-        int lastStopDown = lastStopDownStartingFrom(fromFloor, stops);
-
-        lastStopDown = (toFloor < lastStopDown) ? toFloor : lastStopDown;
-
-        long totalTime = 0;
-
-        if (stops[toFloor] == 0) {
-            totalTime = avgWaitingTimePerStopMs;
-        }
-
-        totalTime += totalTimeDown(fromFloor, lastStopDown, stops);
-
-        if (toFloor < fromFloor) {
-            return totalTime;
-        }
-
-        int lastStopUp = lastStopUpStartingFrom(lastStopDown, stops);
-        lastStopUp = (toFloor > lastStopUp) ? toFloor : lastStopUp;
-
-        totalTime += totalTimeUp(lastStopDown, lastStopUp, stops);
-
-        return totalTime;
+    private boolean isBelow(int floor) {
+        return currentFloor < floor;
     }
 
-    private int lastStopUpStartingFrom(int startingFrom, int[] stops) {
-        int lastStop = startingFrom;
-
-        for (int i = startingFrom; i < nrOfFloors; i++) {
-            if (stops[i] > 0 && i != startingFrom) {
-                lastStop = i;
-            }
-        }
-        return lastStop;
+    private boolean isAbove(int floor) {
+        return currentFloor > floor;
     }
 
-    private int lastStopDownStartingFrom(int startingFrom, int[] stops) {
-        int lastStop = startingFrom;
-        for (int i = startingFrom; i >= 0; i--) {
-            if (stops[i] > 0 && i != startingFrom) {
-                lastStop = i;
-            }
-        }
-        return lastStop;
+    private boolean isOnSameFloor(int floor) {
+        return currentFloor == floor;
     }
 }
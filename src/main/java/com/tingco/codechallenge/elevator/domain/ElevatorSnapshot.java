@@ -0,0 +1,406 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import com.google.common.base.MoreObjects;
+import com.tingco.codechallenge.elevator.api.Elevator.Direction;
+
+/**
+ * Immutable state of an elevator at one state version.
+ * A new snapshot is published every time the elevator changes, so dispatchers and monitoring can read a consistent
+ * state, and estimate times from it, without ever taking the lock of a moving elevator.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class ElevatorSnapshot {
+
+    private final int id;
+    private final long stateVersion;
+    private final Direction direction;
+    private final int currentFloor;
+    private final int nrOfPassengers;
+    private final boolean running;
+    private final ElevatorStops elevatorStops;
+    private final int capacity;
+    private final int parkingFloor;
+    private final long speedBetweenFloorsMs;
+    private final long avgWaitingTimePerStopMs;
+    private final EtaCache etaCache;
+
+    ElevatorSnapshot(int id, long stateVersion, Direction direction, int currentFloor, int nrOfPassengers, boolean running,
+                     ElevatorStops elevatorStops, int capacity, int parkingFloor,
+                     long speedBetweenFloorsMs, long avgWaitingTimePerStopMs, EtaCache etaCache) {
+        this.id = id;
+        this.stateVersion = stateVersion;
+        this.direction = direction;
+        this.currentFloor = currentFloor;
+        this.nrOfPassengers = nrOfPassengers;
+        this.running = running;
+        this.elevatorStops = elevatorStops;
+        this.capacity = capacity;
+        this.parkingFloor = parkingFloor;
+        this.speedBetweenFloorsMs = speedBetweenFloorsMs;
+        this.avgWaitingTimePerStopMs = avgWaitingTimePerStopMs;
+        this.etaCache = etaCache;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("id", id)
+                .add("stateVersion", stateVersion)
+                .add("direction", direction)
+                .add("currentFloor", currentFloor)
+                .add("nrOfPassengers", nrOfPassengers)
+                .add("capacity", capacity)
+                .add("running", running)
+                .toString();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    public int getNrOfPassengers() {
+        return nrOfPassengers;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getNrOfFloors() {
+        return elevatorStops.nrOfFloors();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * True if no more passengers fit in the elevator. A full elevator passes floors where passengers wait and only
+     * stops where its passengers are going.
+     * @return a boolean
+     */
+    public boolean isFull() {
+        return nrOfPassengers >= capacity;
+    }
+
+    /**
+     * Number of passengers in the elevator going to a floor
+     * @param floor the floor
+     * @return number of passengers
+     */
+    public int countDestinations(int floor) {
+        return elevatorStops.getDestinations(floor);
+    }
+
+    /**
+     * Estimates the passengers in the elevator when it reaches a floor. Along its route to the floor the passengers
+     * going to a stop leave and every other request of a stop is a passenger entering.
+     * @param floor the floor
+     * @return number of passengers
+     */
+    public int projectedLoad(int floor) {
+        int load = nrOfPassengers;
+        if (direction == Direction.UP && floor < currentFloor) {
+            load += loadChange(currentFloor + 1, lastStopUp());
+            load += loadChange(floor + 1, currentFloor);
+        } else if (direction == Direction.DOWN && floor > currentFloor) {
+            load += loadChange(lastStopDown(), currentFloor - 1);
+            load += loadChange(currentFloor, floor - 1);
+        } else if (floor > currentFloor) {
+            load += loadChange(currentFloor + 1, floor - 1);
+        } else if (floor < currentFloor) {
+            load += loadChange(floor + 1, currentFloor - 1);
+        }
+        return Math.max(0, load);
+    }
+
+    /**
+     * Passengers entering minus passengers leaving on the floors between two floors, both included
+     */
+    private int loadChange(int lowestFloor, int highestFloor) {
+        return elevatorStops.loadChange(lowestFloor, highestFloor);
+    }
+
+    /**
+     * True if the elevator has no stops to serve
+     * @return a boolean
+     */
+    public boolean isIdle() {
+        return elevatorStops.isEmpty();
+    }
+
+    /**
+     * The lowest floor with a pending request
+     * @return the floor or -1 if there is none
+     */
+    public int getLowestStop() {
+        return elevatorStops.firstStop();
+    }
+
+    /**
+     * The highest floor with a pending request
+     * @return the floor or -1 if there is none
+     */
+    public int getHighestStop() {
+        return elevatorStops.lastStop();
+    }
+
+    /**
+     * Number of pending requests for a floor
+     * @param floor the floor
+     * @return number of requests
+     */
+    public int countRequests(int floor) {
+        return elevatorStops.get(floor);
+    }
+
+    ElevatorStops getElevatorStops() {
+        return elevatorStops;
+    }
+
+    /**
+     * The floor an idle elevator moves to, to wait for calls there
+     * @return the floor, or -1 if the elevator isn't moving to park
+     */
+    public int getParkingFloor() {
+        return parkingFloor;
+    }
+
+    /**
+     * The floor the elevator is heading for
+     * @return the floor
+     */
+    public int getAddressedFloor() {
+        int addressedFloor;
+        if (isFull() && (addressedFloor = nextDestination()) > -1) {
+            return addressedFloor;
+        }
+        if (parkingFloor > -1 && elevatorStops.isEmpty()) {
+            return parkingFloor;
+        }
+        switch (direction) {
+            case UP:
+                if ((addressedFloor = nextStopUp()) > -1) {
+                    return addressedFloor;
+                }
+
+                if ((addressedFloor = nextStopDown()) > -1) {
+                    return addressedFloor;
+
+                }
+                return currentFloor;
+            case DOWN:
+                if ((addressedFloor = nextStopDown()) > -1) {
+                    return addressedFloor;
+                }
+
+                if ((addressedFloor = nextStopUp()) > -1) {
+                    return addressedFloor;
+                }
+
+                return currentFloor;
+            case NONE:
+                int nextStopUp = nextStopUp();
+                int nextStopDown = nextStopDown();
+
+                if (nextStopUp > -1) {
+                    return (nextStopDown == -1) ? nextStopUp : (nextStopDown < nextStopUp) ? nextStopDown : nextStopUp;
+                }
+
+                if (nextStopDown > -1) {
+                    return nextStopDown;
+                }
+                return currentFloor;
+
+        }
+        return currentFloor;
+    }
+
+    /**
+     * The nearest floor a passenger is going to, ahead in the direction of the elevator if there is one
+     */
+    private int nextDestination() {
+        int above = elevatorStops.nextDestinationFrom(currentFloor + 1);
+        int below = elevatorStops.previousDestinationFrom(currentFloor - 1);
+        if (above == -1 || below == -1) {
+            return (above == -1) ? below : above;
+        }
+        switch (direction) {
+            case UP:
+                return above;
+            case DOWN:
+                return below;
+            default:
+                return (above - currentFloor <= currentFloor - below) ? above : below;
+        }
+    }
+
+    /**
+     * Calculates the time for the elevator to reach a certain floor. Times are remembered for the state version, so
+     * asking again before the elevator changes is almost free.
+     * @param toFloor the target floor
+     * @param direction the direction of the request
+     * @return time in milliseconds
+     */
+    public long calculateTimeToFloor(int toFloor, Direction direction) {
+        return etaCache.get(this, toFloor, direction);
+    }
+
+    /**
+     * A full elevator heads for the nearest destination of its passengers like in {@link #getAddressedFloor()}, passing
+     * the floors before it without stopping, and serves its stops from there once passengers have left.
+     */
+    long estimateTimeToFloor(int toFloor, Direction direction) {
+        int destination;
+        if (isFull() && (destination = nextDestination()) > -1) {
+            int lowestFloor = Math.min(currentFloor, destination);
+            int highestFloor = Math.max(currentFloor, destination);
+            if (toFloor == destination) {
+                return totalTime(lowestFloor, highestFloor, 1);
+            }
+            Direction towards = (destination > currentFloor) ? Direction.UP : Direction.DOWN;
+            return (highestFloor - lowestFloor) * speedBetweenFloorsMs
+                    + estimateTimeToFloor(destination, towards, toFloor, direction);
+        }
+        return estimateTimeToFloor(currentFloor, this.direction, toFloor, direction);
+    }
+
+    private long estimateTimeToFloor(int fromFloor, Direction fromDirection, int toFloor, Direction direction) {
+        switch (fromDirection) {
+            case UP:
+                if (direction.equals(Direction.DOWN)) {
+                    return calculateTimeGoingUp(fromFloor, lastStopUp()) + calculateTimeGoingDown(lastStopUp(), toFloor);
+                }
+                return calculateTimeGoingUp(fromFloor, toFloor);
+            case DOWN:
+                if (direction.equals(Direction.UP)) {
+                    return calculateTimeGoingDown(fromFloor, lastStopDown()) + calculateTimeGoingUp(lastStopDown(), toFloor);
+                }
+                return calculateTimeGoingDown(fromFloor, toFloor);
+            case NONE:
+                if (toFloor >= fromFloor) {
+                    return calculateTimeGoingUp(fromFloor, toFloor);
+                }
+                return calculateTimeGoingDown(fromFloor, toFloor);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private int nextStopUp() {
+        return elevatorStops.nextStopFrom(currentFloor);
+    }
+
+    private int lastStopUp() {
+        int lastStop = elevatorStops.lastStop();
+        return (lastStop > -1) ? lastStop : 0;
+    }
+
+    private int nextStopDown() {
+        return elevatorStops.previousStopFrom(currentFloor);
+    }
+
+    private int lastStopDown() {
+        int lastStop = elevatorStops.firstStop();
+        return (lastStop > -1) ? lastStop : elevatorStops.nrOfFloors() - 1;
+    }
+
+    /**
+     * Time to reach a floor when starting upwards. The elevator serves its stops up to the highest one and then, if the
+     * floor is below where it started, its stops on the way down. A served request is not counted again on the way down.
+     */
+    private long calculateTimeGoingUp(int fromFloor, int toFloor) {
+        int lastStopUp = lastStopUpStartingFrom(fromFloor);
+        lastStopUp = (toFloor > lastStopUp) ? toFloor : lastStopUp;
+
+        long totalTime = 0;
+
+        if (elevatorStops.get(toFloor) == 0) {
+            totalTime = avgWaitingTimePerStopMs;
+        }
+
+        totalTime += totalTime(fromFloor, lastStopUp, elevatorStops.countStops(fromFloor, lastStopUp));
+
+        if (toFloor > fromFloor) {
+            return totalTime;
+        }
+
+        // Floors between fromFloor and lastStopUp have had one request served on the way up
+        int lastStopDown = elevatorStops.firstStop();
+        if (lastStopDown < 0 || lastStopDown >= fromFloor) {
+            lastStopDown = elevatorStops.lowestMultipleStop(fromFloor, lastStopUp - 1);
+        }
+        lastStopDown = (lastStopDown < 0) ? lastStopUp : lastStopDown;
+        lastStopDown = (toFloor < lastStopDown) ? toFloor : lastStopDown;
+
+        int stops = elevatorStops.countStops(lastStopDown, fromFloor - 1)
+                + elevatorStops.countMultipleStops(Math.max(lastStopDown, fromFloor), lastStopUp);
+        totalTime += totalTime(lastStopDown, lastStopUp, stops);
+
+        return totalTime;
+    }
+
+    /**
+     * Time to reach a floor when starting downwards, the mirror of {@link #calculateTimeGoingUp(int, int)}
+     */
+    private long calculateTimeGoingDown(int fromFloor, int toFloor) {
+        int lastStopDown = lastStopDownStartingFrom(fromFloor);
+        lastStopDown = (toFloor < lastStopDown) ? toFloor : lastStopDown;
+
+        long totalTime = 0;
+
+        if (elevatorStops.get(toFloor) == 0) {
+            totalTime = avgWaitingTimePerStopMs;
+        }
+
+        totalTime += totalTime(lastStopDown, fromFloor, elevatorStops.countStops(lastStopDown, fromFloor));
+
+        if (toFloor < fromFloor) {
+            return totalTime;
+        }
+
+        // Floors between lastStopDown and fromFloor have had one request served on the way down
+        int lastStopUp = elevatorStops.lastStop();
+        if (lastStopUp <= fromFloor) {
+            lastStopUp = elevatorStops.highestMultipleStop(lastStopDown + 1, fromFloor);
+        }
+        lastStopUp = (lastStopUp < 0) ? lastStopDown : lastStopUp;
+        lastStopUp = (toFloor > lastStopUp) ? toFloor : lastStopUp;
+
+        int stops = elevatorStops.countMultipleStops(lastStopDown, Math.min(lastStopUp, fromFloor))
+                + elevatorStops.countStops(fromFloor + 1, lastStopUp);
+        totalTime += totalTime(lastStopDown, lastStopUp, stops);
+
+        return totalTime;
+    }
+
+    /**
+     * Time to pass the floors between two floors, both included, stopping the given number of times
+     */
+    private long totalTime(int lowestFloor, int highestFloor, int stops) {
+        return stops * avgWaitingTimePerStopMs + (highestFloor - lowestFloor + 1) * speedBetweenFloorsMs;
+    }
+
+    private int lastStopUpStartingFrom(int startingFrom) {
+        int lastStop = elevatorStops.lastStop();
+        return (lastStop > startingFrom) ? lastStop : startingFrom;
+    }
+
+    private int lastStopDownStartingFrom(int startingFrom) {
+        int lastStop = elevatorStops.firstStop();
+        return (lastStop > -1 && lastStop < startingFrom) ? lastStop : startingFrom;
+    }
+}
@@ -0,0 +1,369 @@
+package com.tingco.codechallenge.elevator.domain;
+
+/**
+ * The stops of an elevator, the number of pending requests per floor and how many of them are the destinations of
+ * passengers in the elevator.
+ * The counts are the leaves of an immutable segment tree whose nodes count the floors with at least one and at least
+ * two requests below them, the floors with destinations and the change of load over the floors below them, so the
+ * next or previous stop or destination, the number of stops and the change of load between two floors are found in
+ * logarithmic time. A change returns new stops that share every node off the path to the changed floor with the old
+ * ones, so changing a floor costs a logarithmic number of small nodes, and published stops are never copied. Subtrees
+ * without requests or destinations are left out.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class ElevatorStops {
+
+    private final int nrOfFloors;
+    private final Node root;
+
+    public ElevatorStops(int nrOfFloors) {
+        this(nrOfFloors, null);
+    }
+
+    private ElevatorStops(int nrOfFloors, Node root) {
+        this.nrOfFloors = nrOfFloors;
+        this.root = root;
+    }
+
+    /**
+     * Number of floors
+     * @return number of floors
+     */
+    public int nrOfFloors() {
+        return nrOfFloors;
+    }
+
+    /**
+     * Number of pending requests on a floor
+     * @param floor the floor
+     * @return number of requests
+     */
+    public int get(int floor) {
+        Node leaf = leaf(floor);
+        return (leaf == null) ? 0 : leaf.requests;
+    }
+
+    /**
+     * Number of passengers in the elevator going to a floor
+     * @param floor the floor
+     * @return number of passengers
+     */
+    public int getDestinations(int floor) {
+        Node leaf = leaf(floor);
+        return (leaf == null) ? 0 : leaf.destinations;
+    }
+
+    /**
+     * Adds a request for the floor
+     * @param floor the floor
+     * @return the stops with the request
+     */
+    public ElevatorStops increment(int floor) {
+        return change(floor, 1, 0);
+    }
+
+    /**
+     * Removes a request for the floor
+     * @param floor the floor
+     * @return the stops without the request
+     */
+    public ElevatorStops decrement(int floor) {
+        return change(floor, -1, 0);
+    }
+
+    /**
+     * Adds a passenger going to the floor, the request of the passenger is added with {@link #increment(int)}
+     * @param floor the floor
+     * @return the stops with the destination
+     */
+    public ElevatorStops addDestination(int floor) {
+        return change(floor, 0, 1);
+    }
+
+    /**
+     * Removes a passenger going to the floor
+     * @param floor the floor
+     * @return the stops without the destination
+     */
+    public ElevatorStops removeDestination(int floor) {
+        return change(floor, 0, -1);
+    }
+
+    /**
+     * Number of pending requests on all floors
+     * @return number of requests
+     */
+    public int countRequests() {
+        return (root == null) ? 0 : root.requests;
+    }
+
+    /**
+     * True if there are no stops
+     * @return a boolean
+     */
+    public boolean isEmpty() {
+        return root == null || root.stops == 0;
+    }
+
+    /**
+     * Lowest stop on or above the floor
+     * @param floor the floor to search from
+     * @return the stop or -1 if there is none
+     */
+    public int nextStopFrom(int floor) {
+        return first(root, 0, nrOfFloors - 1, Math.max(floor, 0), nrOfFloors - 1, Count.STOPS);
+    }
+
+    /**
+     * Highest stop on or below the floor
+     * @param floor the floor to search from
+     * @return the stop or -1 if there is none
+     */
+    public int previousStopFrom(int floor) {
+        return last(root, 0, nrOfFloors - 1, 0, Math.min(floor, nrOfFloors - 1), Count.STOPS);
+    }
+
+    /**
+     * The lowest stop
+     * @return the stop or -1 if there is none
+     */
+    public int firstStop() {
+        return nextStopFrom(0);
+    }
+
+    /**
+     * The highest stop
+     * @return the stop or -1 if there is none
+     */
+    public int lastStop() {
+        return previousStopFrom(nrOfFloors - 1);
+    }
+
+    /**
+     * Number of floors with at least one request between two floors
+     * @param fromFloor lowest floor, inclusive
+     * @param toFloor highest floor, inclusive
+     * @return number of stops
+     */
+    public int countStops(int fromFloor, int toFloor) {
+        return sum(root, 0, nrOfFloors - 1, fromFloor, toFloor, Count.STOPS);
+    }
+
+    /**
+     * Number of floors with at least two requests between two floors, the floors that are still stops after one
+     * request has been served
+     * @param fromFloor lowest floor, inclusive
+     * @param toFloor highest floor, inclusive
+     * @return number of stops
+     */
+    public int countMultipleStops(int fromFloor, int toFloor) {
+        return sum(root, 0, nrOfFloors - 1, fromFloor, toFloor, Count.MULTIPLE_STOPS);
+    }
+
+    /**
+     * Lowest floor on or above the floor that a passenger in the elevator is going to
+     * @param floor the floor to search from
+     * @return the floor or -1 if there is none
+     */
+    public int nextDestinationFrom(int floor) {
+        return first(root, 0, nrOfFloors - 1, Math.max(floor, 0), nrOfFloors - 1, Count.DESTINATION_FLOORS);
+    }
+
+    /**
+     * Highest floor on or below the floor that a passenger in the elevator is going to
+     * @param floor the floor to search from
+     * @return the floor or -1 if there is none
+     */
+    public int previousDestinationFrom(int floor) {
+        return last(root, 0, nrOfFloors - 1, 0, Math.min(floor, nrOfFloors - 1), Count.DESTINATION_FLOORS);
+    }
+
+    /**
+     * Passengers entering minus passengers leaving on the floors between two floors, the passengers going to a floor
+     * leave there and every other request of the floor is a passenger entering
+     * @param fromFloor lowest floor, inclusive
+     * @param toFloor highest floor, inclusive
+     * @return change of the number of passengers
+     */
+    public int loadChange(int fromFloor, int toFloor) {
+        return sum(root, 0, nrOfFloors - 1, fromFloor, toFloor, Count.LOAD_CHANGE);
+    }
+
+    /**
+     * Lowest floor with at least two requests between two floors
+     * @param fromFloor lowest floor, inclusive
+     * @param toFloor highest floor, inclusive
+     * @return the floor or -1 if there is none
+     */
+    public int lowestMultipleStop(int fromFloor, int toFloor) {
+        return first(root, 0, nrOfFloors - 1, fromFloor, toFloor, Count.MULTIPLE_STOPS);
+    }
+
+    /**
+     * Highest floor with at least two requests between two floors
+     * @param fromFloor lowest floor, inclusive
+     * @param toFloor highest floor, inclusive
+     * @return the floor or -1 if there is none
+     */
+    public int highestMultipleStop(int fromFloor, int toFloor) {
+        return last(root, 0, nrOfFloors - 1, fromFloor, toFloor, Count.MULTIPLE_STOPS);
+    }
+
+    private Node leaf(int floor) {
+        Node node = root;
+        int low = 0;
+        int high = nrOfFloors - 1;
+        while (node != null && low < high) {
+            int middle = (low + high) >>> 1;
+            if (floor <= middle) {
+                node = node.left;
+                high = middle;
+            } else {
+                node = node.right;
+                low = middle + 1;
+            }
+        }
+        return node;
+    }
+
+    private ElevatorStops change(int floor, int requests, int destinations) {
+        if (floor < 0 || floor >= nrOfFloors) {
+            throw new IndexOutOfBoundsException(String.format("Floor=%d is outside of %d floors", floor, nrOfFloors));
+        }
+        return new ElevatorStops(nrOfFloors, change(root, 0, nrOfFloors - 1, floor, requests, destinations));
+    }
+
+    private static Node change(Node node, int low, int high, int floor, int requests, int destinations) {
+        if (low == high) {
+            int newRequests = ((node == null) ? 0 : node.requests) + requests;
+            int newDestinations = ((node == null) ? 0 : node.destinations) + destinations;
+            return (newRequests == 0 && newDestinations == 0) ? null : new Node(newRequests, newDestinations);
+        }
+        int middle = (low + high) >>> 1;
+        Node left = (node == null) ? null : node.left;
+        Node right = (node == null) ? null : node.right;
+        if (floor <= middle) {
+            left = change(left, low, middle, floor, requests, destinations);
+        } else {
+            right = change(right, middle + 1, high, floor, requests, destinations);
+        }
+        return (left == null && right == null) ? null : new Node(left, right);
+    }
+
+    /**
+     * Lowest floor between two floors, both included, that counts
+     */
+    private static int first(Node node, int low, int high, int fromFloor, int toFloor, Count count) {
+        if (node == null || high < fromFloor || low > toFloor || count.of(node) == 0) {
+            return -1;
+        }
+        if (low == high) {
+            return low;
+        }
+        int middle = (low + high) >>> 1;
+        int floor = first(node.left, low, middle, fromFloor, toFloor, count);
+        return (floor > -1) ? floor : first(node.right, middle + 1, high, fromFloor, toFloor, count);
+    }
+
+    /**
+     * Highest floor between two floors, both included, that counts
+     */
+    private static int last(Node node, int low, int high, int fromFloor, int toFloor, Count count) {
+        if (node == null || high < fromFloor || low > toFloor || count.of(node) == 0) {
+            return -1;
+        }
+        if (low == high) {
+            return low;
+        }
+        int middle = (low + high) >>> 1;
+        int floor = last(node.right, middle + 1, high, fromFloor, toFloor, count);
+        return (floor > -1) ? floor : last(node.left, low, middle, fromFloor, toFloor, count);
+    }
+
+    /**
+     * Sum of the counts of the floors between two floors, both included
+     */
+    private static int sum(Node node, int low, int high, int fromFloor, int toFloor, Count count) {
+        if (node == null || high < fromFloor || low > toFloor) {
+            return 0;
+        }
+        if (fromFloor <= low && high <= toFloor) {
+            return count.of(node);
+        }
+        int middle = (low + high) >>> 1;
+        return sum(node.left, low, middle, fromFloor, toFloor, count)
+                + sum(node.right, middle + 1, high, fromFloor, toFloor, count);
+    }
+
+    /**
+     * What the nodes count
+     */
+    private enum Count {
+        STOPS {
+            @Override
+            int of(Node node) {
+                return node.stops;
+            }
+        },
+        MULTIPLE_STOPS {
+            @Override
+            int of(Node node) {
+                return node.multipleStops;
+            }
+        },
+        DESTINATION_FLOORS {
+            @Override
+            int of(Node node) {
+                return node.destinationFloors;
+            }
+        },
+        LOAD_CHANGE {
+            @Override
+            int of(Node node) {
+                return node.loadChange;
+            }
+        };
+
+        abstract int of(Node node);
+    }
+
+    /**
+     * A floor, or the floors below an inner node. Leaves keep the counts of their floor, inner nodes the sums of the
+     * counts below them except for the destinations.
+     */
+    private static final class Node {
+        private final Node left;
+        private final Node right;
+        private final int requests;
+        private final int destinations;
+        private final int stops;
+        private final int multipleStops;
+        private final int destinationFloors;
+        private final int loadChange;
+
+        Node(int requests, int destinations) {
+            this.left = null;
+            this.right = null;
+            this.requests = requests;
+            this.destinations = destinations;
+            this.stops = (requests > 0) ? 1 : 0;
+            this.multipleStops = (requests > 1) ? 1 : 0;
+            this.destinationFloors = (destinations > 0) ? 1 : 0;
+            this.loadChange = Math.max(0, requests - destinations) - destinations;
+        }
+
+        Node(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+            this.requests = ((left == null) ? 0 : left.requests) + ((right == null) ? 0 : right.requests);
+            this.destinations = 0;
+            this.stops = ((left == null) ? 0 : left.stops) + ((right == null) ? 0 : right.stops);
+            this.multipleStops = ((left == null) ? 0 : left.multipleStops) + ((right == null) ? 0 : right.multipleStops);
+            this.destinationFloors = ((left == null) ? 0 : left.destinationFloors)
+                    + ((right == null) ? 0 : right.destinationFloors);
+            this.loadChange = ((left == null) ? 0 : left.loadChange) + ((right == null) ? 0 : right.loadChange);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import com.tingco.codechallenge.elevator.api.Elevator.Direction;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estimated times to floors of one elevator, remembered for the state version they were calculated for.
+ * The times are kept per floor and direction of the request, each with a stamp of the state version it belongs to, so
+ * a time of an old state is never returned and a new state version needs neither a new array nor clearing the old one.
+ * Stamps only grow, a writer claims an entry by setting its stamp to {@link #WRITING} and stamps it with the version
+ * after the time is set, and a reader only trusts a time when the stamp is its version both before and after reading.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+final class EtaCache {
+
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final long WRITING = -1;
+    private static final int NR_OF_DIRECTIONS = Direction.values().length;
+
+    private final AtomicLongArray stamps;
+    private final AtomicLongArray times;
+
+    EtaCache(int nrOfFloors) {
+        int size = nrOfFloors * NR_OF_DIRECTIONS;
+        this.stamps = new AtomicLongArray(size);
+        this.times = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            stamps.set(i, NEVER);
+        }
+    }
+
+    /**
+     * Time for the elevator in the snapshot state to reach a floor
+     * @param snapshot the state of the elevator
+     * @param toFloor the target floor
+     * @param direction the direction of the request
+     * @return time in milliseconds
+     */
+    long get(ElevatorSnapshot snapshot, int toFloor, Direction direction) {
+        long stateVersion = snapshot.getStateVersion();
+        int index = toFloor * NR_OF_DIRECTIONS + direction.ordinal();
+        long stamp = stamps.get(index);
+        if (stamp == stateVersion) {
+            long time = times.get(index);
+            if (stamps.get(index) == stateVersion) {
+                return time;
+            }
+        }
+
+        long time = snapshot.estimateTimeToFloor(toFloor, direction);
+        // Times of old snapshots are not worth remembering, and an entry being written is left to its writer
+        if (stamp != WRITING && stamp < stateVersion && stamps.compareAndSet(index, stamp, WRITING)) {
+            times.set(index, time);
+            stamps.set(index, stateVersion);
+        }
+        return time;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import com.tingco.codechallenge.elevator.api.ElevatorListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The listeners of an elevator, indexed by the floor they are interested in.
+ * A stop only calls the listeners of its floor and the listeners of every floor. The lists are swapped and reused, so
+ * firing an event doesn't allocate, and the listeners are called without holding any lock, which lets them add and
+ * remove listeners, also for the floor being fired.
+ * Events of one elevator must be fired from one thread at a time.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+final class FloorListeners {
+
+    private final List<ElevatorListener> everyFloor = new ArrayList<>();
+    private final List<ElevatorListener>[] floors;
+    private final List<ElevatorListener> firing = new ArrayList<>();
+    private List<ElevatorListener> spare = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    FloorListeners(int nrOfFloors) {
+        this.floors = new List[nrOfFloors];
+    }
+
+    synchronized void add(ElevatorListener listener) {
+        everyFloor.add(listener);
+    }
+
+    synchronized void add(int floor, ElevatorListener listener) {
+        if (floors[floor] == null) {
+            floors[floor] = new ArrayList<>();
+        }
+        floors[floor].add(listener);
+    }
+
+    synchronized void remove(ElevatorListener listener) {
+        everyFloor.remove(listener);
+        for (List<ElevatorListener> listeners : floors) {
+            if (listeners != null) {
+                listeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Calls the listeners of the floor of the event, and the listeners of every floor. Listeners returning true are
+     * removed.
+     * @param event the stop event
+     */
+    void fire(StopEvent event) {
+        int floor = event.getFloor();
+        List<ElevatorListener> listeners;
+        synchronized (this) {
+            for (int i = 0; i < everyFloor.size(); i++) {
+                firing.add(everyFloor.get(i));
+            }
+            listeners = floors[floor];
+            if (listeners != null && !listeners.isEmpty()) {
+                floors[floor] = spare;
+                spare = null;
+            } else {
+                listeners = null;
+            }
+        }
+
+        for (int i = 0; i < firing.size(); i++) {
+            ElevatorListener listener = firing.get(i);
+            if (listener.onStopEvent(event)) {
+                synchronized (this) {
+                    everyFloor.remove(listener);
+                }
+            }
+        }
+        firing.clear();
+
+        if (listeners != null) {
+            for (int i = 0; i < listeners.size(); i++) {
+                ElevatorListener listener = listeners.get(i);
+                if (!listener.onStopEvent(event)) {
+                    add(floor, listener);
+                }
+            }
+            listeners.clear();
+            spare = listeners;
+        }
+    }
+}
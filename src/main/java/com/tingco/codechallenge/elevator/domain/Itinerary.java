@@ -0,0 +1,81 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import java.util.Arrays;
+
+/**
+ * The floors a passenger is going to stop on, in order. The floors are kept in a ring of ints that only grows when more
+ * floors are added than it can hold, so travelling and reusing the itinerary for the next passenger doesn't allocate.
+ * Not thread safe, the passenger owning it guards it.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+final class Itinerary {
+
+    /**
+     * Returned when the itinerary doesn't have the asked floor
+     */
+    static final int NO_FLOOR = -1;
+
+    private int[] floors;
+    private int head;
+    private int size;
+
+    Itinerary(int initialCapacity) {
+        this.floors = new int[Math.max(1, initialCapacity)];
+    }
+
+    void add(int floor) {
+        if (size == floors.length) {
+            int[] grown = new int[floors.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = floors[(head + i) % floors.length];
+            }
+            floors = grown;
+            head = 0;
+        }
+        floors[(head + size) % floors.length] = floor;
+        size++;
+    }
+
+    /**
+     * Returns a floor without removing it
+     * @param index 0 for the floor the passenger is on, 1 for the next one and so on
+     * @return the floor, or {@link #NO_FLOOR}
+     */
+    int peek(int index) {
+        if (index >= size) {
+            return NO_FLOOR;
+        }
+        return floors[(head + index) % floors.length];
+    }
+
+    /**
+     * Removes the floor the passenger is on
+     */
+    void poll() {
+        if (size == 0) {
+            return;
+        }
+        head = (head + 1) % floors.length;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        int[] copy = new int[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = peek(i);
+        }
+        return Arrays.toString(copy);
+    }
+}
@@ -2,15 +2,17 @@ package com.tingco.codechallenge.elevator.domain;
 
 import com.google.common.base.MoreObjects;
 import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorController;
 import com.tingco.codechallenge.elevator.api.ElevatorListener;
+import com.tingco.codechallenge.elevator.metrics.EventRecorder;
+import com.tingco.codechallenge.elevator.metrics.EventType;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 import java.util.logging.Logger;
 
 /**
- * A simulated passenger that uses the elevators
+ * A simulated passenger that uses the elevators.
+ * The stops are kept as primitive floors, and a passenger from a {@link PassengerPool} returns to the pool when it
+ * leaves the elevator on its last stop, so it must not be used after that.
  *
  * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
  * @since 1.0.0
@@ -18,15 +20,49 @@ import java.util.logging.Logger;
 public class Passenger implements ElevatorListener {
     private static final Logger LOGGER = Logger.getLogger(Passenger.class.getName());
 
+    /**
+     * Floor returned when the passenger has no such floor
+     */
+    public static final int NO_FLOOR = Itinerary.NO_FLOOR;
+
+    private static final int TYPICAL_NR_OF_STOPS = 2;
+
     private int id;
-    private List<Integer> stops = new ArrayList<>();
+    private final Itinerary stops = new Itinerary(TYPICAL_NR_OF_STOPS);
     private boolean inElevator = false;
     private boolean waiting = false;
+    private ElevatorController controller;
+    private boolean destinationCall = false;
+    private PassengerPool pool;
+    private EventRecorder eventRecorder;
 
     public Passenger(int id) {
         this.id = id;
     }
 
+    synchronized void reset(int id) {
+        this.id = id;
+        stops.clear();
+        inElevator = false;
+        waiting = false;
+        controller = null;
+        destinationCall = false;
+        pool = null;
+        eventRecorder = null;
+    }
+
+    synchronized void setPool(PassengerPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Records the passenger entering and leaving elevators
+     * @param eventRecorder where to record, or null to not record
+     */
+    public synchronized void setEventRecorder(EventRecorder eventRecorder) {
+        this.eventRecorder = eventRecorder;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -46,6 +82,7 @@ public class Passenger implements ElevatorListener {
                 .add("id", id)
                 .add("inElevator", inElevator)
                 .add("waiting", waiting)
+                .add("stops", stops)
                 .toString();
     }
 
@@ -67,79 +104,128 @@ public class Passenger implements ElevatorListener {
 
     /**
      * Return next target floor
-     * @return target floor
+     * @return target floor, or {@link #NO_FLOOR} if there is none
      */
-    public synchronized Integer getNextFloor() {
-        if (stops.size() < 2) {
-            return null;
-        }
-        return stops.get(1);
+    public synchronized int getNextFloor() {
+        return stops.peek(1);
     }
 
     /**
      * Returns current floor passenger is on, if he's not in the elevator
-     * @return curren floor
+     * @return curren floor, or {@link #NO_FLOOR} if there is none
      */
-    public synchronized Integer getCurrentFloor() {
-        if (stops.isEmpty()) {
-            return null;
-        }
-        return stops.get(0);
+    public synchronized int getCurrentFloor() {
+        return stops.peek(0);
     }
 
     /**
      * Ads a elevator stop for passenger
      * @param floor where to stop
      */
-    public void addStop(Integer floor) {
-        Objects.requireNonNull(floor);
+    public synchronized void addStop(int floor) {
+        if (floor < 0) {
+            throw new IllegalArgumentException(String.format("Floor=%d can't be negative", floor));
+        }
         stops.add(floor);
     }
 
     /**
-     * Assigns an elevator to the passenger
+     * Lets the passenger call another elevator when the one assigned to him arrives full. Without a controller he waits
+     * for the full elevator to come back.
+     * @param controller the controller to call elevators from
+     * @param destinationCall true to call with the target floor, false for a hall call
+     */
+    public synchronized void setController(ElevatorController controller, boolean destinationCall) {
+        this.controller = controller;
+        this.destinationCall = destinationCall;
+    }
+
+    /**
+     * Assigns an elevator to the passenger, the passenger listens to the elevator stopping on the floor he's on
      * @param elevator the elevator
      */
     public synchronized void assignElevator(Elevator elevator) {
-        elevator.addElevatorListener(this);
+        int currentFloor = stops.peek(0);
+        if (currentFloor == Itinerary.NO_FLOOR) {
+            LOGGER.info(String.format("Passenger=%d has left the building", id));
+            return;
+        }
+        elevator.addElevatorListener(currentFloor, this);
         waiting = true;
     }
 
     @Override
     public synchronized boolean onStopEvent(StopEvent event) {
         Elevator elevator = event.getElevator();
+        int nextFloor = stops.peek(1);
 
-        if (inElevator && event.getFloor().equals(getNextFloor())) {
-            stops.remove(0);
+        if (inElevator && nextFloor != Itinerary.NO_FLOOR && event.getFloor() == nextFloor) {
+            stops.poll();
             inElevator = false;
             waiting = false;
             elevator.leave();
-            LOGGER.info(String.format("Passenger=%d, leaves elevator=%d on floor=%d", id, elevator.getId(), event.getFloor()));
+            record(EventType.PASSENGER_LEFT, elevator, event.getFloor());
+            releaseIfArrived();
             return true;
         }
 
-        if (!inElevator && event.getFloor().equals(getCurrentFloor())) {
-            inElevator = true;
+        int currentFloor = stops.peek(0);
+        if (!inElevator && currentFloor != Itinerary.NO_FLOOR && event.getFloor() == currentFloor) {
             waiting = false;
-            Integer nextFloor = getNextFloor();
-            if (nextFloor == null) {
-                inElevator = false;
-                stops.remove(0);
+            if (nextFloor == Itinerary.NO_FLOOR) {
+                stops.poll();
                 return true;
             }
-            elevator.enter(nextFloor);
-            LOGGER.info(String.format("Passenger=%d, enters elevator=%d on floor=%d", id, elevator.getId(), event.getFloor()));
-            return false;
+            if (!elevator.enter(nextFloor)) {
+                return callAnotherElevator(elevator, currentFloor, nextFloor);
+            }
+            inElevator = true;
+            elevator.addElevatorListener(nextFloor, this);
+            record(EventType.PASSENGER_ENTERED, elevator, event.getFloor());
+            if (pool != null) {
+                pool.pickedUp();
+            }
+            return true;
         }
 
-        if (inElevator) {
-            LOGGER.info(String.format("Passenger=%d is in elevator=%d, on floor=%d", id, elevator.getId(), event.getFloor()));
-        }else if (getCurrentFloor() != null){
-            LOGGER.info(String.format("Passenger=%d is %s on floor=%d", id, (waiting? "waiting" : "hanging around"), getCurrentFloor()));
-        }else {
-            LOGGER.info(String.format("Passenger=%d has left the building", id));
+        return false;
+    }
+
+    private void record(EventType type, Elevator elevator, int floor) {
+        if (eventRecorder != null) {
+            eventRecorder.record(type, id, elevator.getId(), floor, 0);
+        }
+    }
+
+    /**
+     * Returns the passenger to its pool when it has no more stops to travel to. The elevator removes the passenger as a
+     * listener when this event has been handled, and listeners added while firing aren't called for this event, so the
+     * passenger can be handed out again right away.
+     */
+    private void releaseIfArrived() {
+        if (pool != null && stops.size() < 2) {
+            PassengerPool owner = pool;
+            pool = null;
+            owner.release(this);
         }
+    }
 
-        return false;
+    /**
+     * Gives up the request of the full elevator and calls again. The controller doesn't choose full elevators as long
+     * as another one has room, and a full elevator doesn't stop for waiting passengers, so calling the same elevator
+     * again means waiting for it to come back with room.
+     * @return true to stop listening to the full elevator
+     */
+    private boolean callAnotherElevator(Elevator full, int currentFloor, int nextFloor) {
+        waiting = true;
+        if (controller == null) {
+            return false;
+        }
+        full.serveStop();
+        Elevator elevator = destinationCall
+                ? controller.requestDestination(currentFloor, nextFloor)
+                : controller.requestElevator(currentFloor, (nextFloor > currentFloor) ? Elevator.Direction.UP : Elevator.Direction.DOWN);
+        elevator.addElevatorListener(currentFloor, this);
+        return true;
     }
 }
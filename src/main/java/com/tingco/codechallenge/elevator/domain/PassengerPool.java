@@ -0,0 +1,120 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import com.google.common.base.MoreObjects;
+import com.tingco.codechallenge.elevator.metrics.EventRecorder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Hands out passengers and takes them back when they have left the building, so a simulation of millions of trips only
+ * keeps the passengers that are travelling at the same time. Keeps count of the passengers it has handed out, the ones
+ * that have been picked up and the ones that have been delivered, as the passengers themselves are reused.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class PassengerPool {
+
+    private final Deque<Passenger> idle = new ArrayDeque<>();
+    private final int maxIdle;
+    private int created;
+    private int acquired;
+    private int pickedUp;
+    private int delivered;
+    private volatile EventRecorder eventRecorder;
+
+    /**
+     * @param maxIdle the most passengers kept for reuse, passengers released beyond that are left to the garbage
+     *                collector
+     */
+    public PassengerPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Returns a passenger without stops. The passenger returns to the pool when it leaves an elevator on its last stop.
+     * @param id the id of the passenger
+     * @return the passenger
+     */
+    public Passenger acquire(int id) {
+        Passenger passenger;
+        synchronized (this) {
+            acquired++;
+            passenger = idle.pollFirst();
+            if (passenger == null) {
+                created++;
+            }
+        }
+        if (passenger == null) {
+            passenger = new Passenger(id);
+        } else {
+            passenger.reset(id);
+        }
+        passenger.setPool(this);
+        passenger.setEventRecorder(eventRecorder);
+        return passenger;
+    }
+
+    /**
+     * Records the passengers handed out entering and leaving elevators
+     * @param eventRecorder where to record, or null to not record
+     */
+    public void setEventRecorder(EventRecorder eventRecorder) {
+        this.eventRecorder = eventRecorder;
+    }
+
+    synchronized void pickedUp() {
+        pickedUp++;
+    }
+
+    synchronized void release(Passenger passenger) {
+        delivered++;
+        if (idle.size() < maxIdle) {
+            idle.addFirst(passenger);
+        }
+    }
+
+    /**
+     * Returns the number of passengers handed out
+     * @return a count
+     */
+    public synchronized int getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Returns the number of times passengers have entered an elevator, once per passenger when every passenger makes
+     * one trip
+     * @return a count
+     */
+    public synchronized int getPickedUp() {
+        return pickedUp;
+    }
+
+    /**
+     * Returns the number of passengers that have left the elevator on their last stop
+     * @return a count
+     */
+    public synchronized int getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Returns the number of passengers the pool has created, the most that have travelled at the same time
+     * @return a count
+     */
+    public synchronized int getCreated() {
+        return created;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("acquired", acquired)
+                .add("created", created)
+                .add("pickedUp", pickedUp)
+                .add("delivered", delivered)
+                .toString();
+    }
+}
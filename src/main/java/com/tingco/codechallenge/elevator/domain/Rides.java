@@ -0,0 +1,98 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import java.util.Arrays;
+
+/**
+ * The rides of the passengers in an elevator, the time and floor they entered on, by the floor they are going to.
+ * Rides are slots of primitive arrays linked per floor, and a finished ride's slot is reused by the next one, so timing
+ * a ride allocates nothing once the arrays have grown to the number of passengers riding at the same time.
+ * Passengers going to the same floor leave together, so the rides of a floor are ended in any order.
+ * Must be used holding the monitor of the elevator.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+final class Rides {
+
+    static final int NO_RIDE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int[] firstRide;
+    private long[] enteredMs;
+    private int[] fromFloors;
+    private int[] nextRide;
+    private int free = NO_RIDE;
+
+    Rides(int nrOfFloors) {
+        this.firstRide = new int[nrOfFloors];
+        this.enteredMs = new long[0];
+        this.fromFloors = new int[0];
+        this.nextRide = new int[0];
+        clear();
+    }
+
+    /**
+     * Starts a ride
+     * @param fromFloor the floor the passenger entered on
+     * @param toFloor the floor the passenger is going to
+     * @param timeMs the time the passenger entered
+     */
+    void enter(int fromFloor, int toFloor, long timeMs) {
+        if (free == NO_RIDE) {
+            grow(Math.max(INITIAL_CAPACITY, nextRide.length * 2));
+        }
+        int ride = free;
+        free = nextRide[ride];
+        enteredMs[ride] = timeMs;
+        fromFloors[ride] = fromFloor;
+        nextRide[ride] = firstRide[toFloor];
+        firstRide[toFloor] = ride;
+    }
+
+    /**
+     * Ends a ride to the floor
+     * @param floor the floor the passenger leaves on
+     * @return the ride, to be read before the next ride starts, or {@link #NO_RIDE} if no ride goes to the floor
+     */
+    int leave(int floor) {
+        int ride = firstRide[floor];
+        if (ride != NO_RIDE) {
+            firstRide[floor] = nextRide[ride];
+            nextRide[ride] = free;
+            free = ride;
+        }
+        return ride;
+    }
+
+    long getEnteredMs(int ride) {
+        return enteredMs[ride];
+    }
+
+    int getFromFloor(int ride) {
+        return fromFloors[ride];
+    }
+
+    /**
+     * Ends all rides
+     */
+    void clear() {
+        Arrays.fill(firstRide, NO_RIDE);
+        free = NO_RIDE;
+        for (int ride = nextRide.length - 1; ride >= 0; ride--) {
+            nextRide[ride] = free;
+            free = ride;
+        }
+    }
+
+    private void grow(int capacity) {
+        int oldCapacity = nextRide.length;
+        enteredMs = Arrays.copyOf(enteredMs, capacity);
+        fromFloors = Arrays.copyOf(fromFloors, capacity);
+        nextRide = Arrays.copyOf(nextRide, capacity);
+        for (int ride = capacity - 1; ride >= oldCapacity; ride--) {
+            nextRide[ride] = free;
+            free = ride;
+        }
+    }
+}
@@ -3,24 +3,31 @@ package com.tingco.codechallenge.elevator.domain;
 import com.tingco.codechallenge.elevator.api.Elevator;
 
 /**
+ * An elevator stopping on a floor.
+ * An elevator reuses its event for every stop, so listeners must not keep the event after it has been handled.
+ *
  * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
  * @since 1.0.0
  */
 public class StopEvent {
 
-    private final Integer floor;
+    private int floor;
     private final Elevator elevator;
 
-    public StopEvent(Integer floor, Elevator elevator){
+    public StopEvent(int floor, Elevator elevator){
         this.floor = floor;
         this.elevator = elevator;
     }
 
-    public Integer getFloor() {
+    public int getFloor() {
         return floor;
     }
 
     public Elevator getElevator() {
         return elevator;
     }
+
+    void setFloor(int floor) {
+        this.floor = floor;
+    }
 }
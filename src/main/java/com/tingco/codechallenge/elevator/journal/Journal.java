@@ -0,0 +1,69 @@
+package com.tingco.codechallenge.elevator.journal;
+
+/**
+ * Journal of the changes of the elevators, from which their state can be rebuilt after a restart
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface Journal {
+
+    /**
+     * Journal that doesn't keep anything
+     */
+    Journal NONE = new Journal() {
+        @Override
+        public void append(RecordType type, int elevatorId, long stateVersion, int floor, int argument) {
+        }
+
+        @Override
+        public long currentSegment() {
+            return 0;
+        }
+
+        @Override
+        public void deleteSegmentsBefore(long segment) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Appends a record, must not block
+     * @param type the type of record
+     * @param elevatorId the elevator changed
+     * @param stateVersion the state version of the elevator after the change
+     * @param floor the floor of the change
+     * @param argument the target floor of {@link RecordType#ENTER}, the direction ordinal of {@link RecordType#STOP}
+     */
+    void append(RecordType type, int elevatorId, long stateVersion, int floor, int argument);
+
+    /**
+     * The segment records are currently appended to. The records of earlier segments are all of changes made before
+     * this was called.
+     * @return number of the segment
+     */
+    long currentSegment();
+
+    /**
+     * Deletes the segments no longer needed, e.g. because a snapshot holds their changes
+     * @param segment the first segment to keep
+     */
+    void deleteSegmentsBefore(long segment);
+
+    /**
+     * Writes the records appended so far to disk
+     */
+    void flush();
+
+    /**
+     * Flushes and closes the journal
+     */
+    void close();
+}
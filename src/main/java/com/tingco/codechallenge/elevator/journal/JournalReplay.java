@@ -0,0 +1,88 @@
+package com.tingco.codechallenge.elevator.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the state of the elevators by reading the journal segments in order. A segment is mapped read only and
+ * its records are read up to the last written one. Writers claim their slots before they fill them, so a slot left
+ * empty by a writer that didn't finish may come before written records, empty slots are skipped. Requests and
+ * passengers are counts, so records appended out of order by different threads still add up to the same state, and
+ * the last stop is the one with the highest state version.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class JournalReplay {
+
+    private JournalReplay() {
+    }
+
+    /**
+     * Replays the journal of a directory
+     * @param directory directory of the segment files
+     * @param nrOfFloors number of floors of the elevators
+     * @return the elevators found in the journal by id
+     */
+    public static Map<Integer, RecoveredElevator> replay(Path directory, int nrOfFloors) {
+        return replay(directory, nrOfFloors, 0, new TreeMap<>());
+    }
+
+    /**
+     * Replays the tail of the journal of a directory on top of a snapshot
+     * @param directory directory of the segment files
+     * @param nrOfFloors number of floors of the elevators
+     * @param fromSegment the first segment to replay
+     * @param elevators the elevators of the snapshot by id, updated by the replay
+     * @return the elevators by id
+     */
+    public static Map<Integer, RecoveredElevator> replay(Path directory, int nrOfFloors, long fromSegment,
+            Map<Integer, RecoveredElevator> elevators) {
+        try {
+            for (Path file : MappedJournal.segmentFiles(directory)) {
+                if (MappedJournal.segmentNumber(file) >= fromSegment) {
+                    replaySegment(file, nrOfFloors, elevators);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return elevators;
+    }
+
+    private static void replaySegment(Path file, int nrOfFloors, Map<Integer, RecoveredElevator> elevators) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int end = endOfRecords(segment);
+            for (int index = 0; index < end; index += MappedJournal.RECORD_SIZE) {
+                int code = segment.getInt(index);
+                if (code == 0) {
+                    continue;
+                }
+                int elevatorId = segment.getInt(index + 4);
+                int floor = segment.getInt(index + 8);
+                int argument = segment.getInt(index + 12);
+                long stateVersion = segment.getLong(index + 16);
+                elevators.computeIfAbsent(elevatorId, id -> new RecoveredElevator(id, nrOfFloors))
+                        .apply(RecordType.of(code), stateVersion, floor, argument);
+            }
+        }
+    }
+
+    /**
+     * The end of the last written record of a segment, the high water mark of its writers
+     */
+    private static int endOfRecords(MappedByteBuffer segment) {
+        int index = segment.limit() / MappedJournal.RECORD_SIZE * MappedJournal.RECORD_SIZE;
+        while (index > 0 && segment.getInt(index - MappedJournal.RECORD_SIZE) == 0) {
+            index -= MappedJournal.RECORD_SIZE;
+        }
+        return index;
+    }
+}
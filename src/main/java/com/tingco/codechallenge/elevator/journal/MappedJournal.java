@@ -0,0 +1,192 @@
+package com.tingco.codechallenge.elevator.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Journal appending fixed size records to memory mapped segment files.
+ * A record is claimed by moving the append position forward and written straight into the mapped segment, so
+ * appending takes no lock and never waits for the disk. A background thread forces the written segments to disk every
+ * flush interval, one force for all records appended in the interval. When a segment is full the next record starts a
+ * new segment file. A journal opened on a directory with segments continues in a new segment after them.
+ *
+ * Record layout, {@value #RECORD_SIZE} bytes: record type code, elevator id, floor, argument and state version. The
+ * type code is written last and is 0 in a segment that hasn't been written to yet.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class MappedJournal implements Journal {
+
+    private static final Logger LOGGER = Logger.getLogger(MappedJournal.class.getName());
+
+    static final int RECORD_SIZE = 24;
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long firstSegment;
+    private final AtomicLong position = new AtomicLong();
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Object mapLock = new Object();
+    private long flushedPosition = 0;
+
+    /**
+     * Opens a journal in a directory
+     * @param directory directory of the segment files, created if missing
+     * @param segmentSize size of a segment file in bytes, rounded down to whole records
+     * @param flushIntervalMs time between writes to disk
+     */
+    public MappedJournal(Path directory, int segmentSize, long flushIntervalMs) {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException(String.format("Segment size=%d is smaller than a record", segmentSize));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing = segmentFiles(directory);
+            this.firstSegment = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void append(RecordType type, int elevatorId, long stateVersion, int floor, int argument) {
+        long offset = position.getAndAdd(RECORD_SIZE);
+        MappedByteBuffer segment = segment(firstSegment + offset / segmentSize);
+        int index = (int) (offset % segmentSize);
+        segment.putInt(index + 4, elevatorId);
+        segment.putInt(index + 8, floor);
+        segment.putInt(index + 12, argument);
+        segment.putLong(index + 16, stateVersion);
+        segment.putInt(index, type.code());
+    }
+
+    @Override
+    public synchronized void flush() {
+        long appended = position.get();
+        if (appended == flushedPosition) {
+            return;
+        }
+        long currentSegment = firstSegment + appended / segmentSize;
+        for (Map.Entry<Long, MappedByteBuffer> entry : segments.entrySet()) {
+            entry.getValue().force();
+            // Writers have long moved on from segments before the previous one
+            if (entry.getKey() < currentSegment - 1) {
+                segments.remove(entry.getKey());
+            }
+        }
+        flushedPosition = appended;
+    }
+
+    @Override
+    public long currentSegment() {
+        return firstSegment + position.get() / segmentSize;
+    }
+
+    @Override
+    public void deleteSegmentsBefore(long segment) {
+        try {
+            for (Path file : segmentFiles(directory)) {
+                long number = segmentNumber(file);
+                if (number < segment) {
+                    segments.remove(number);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * The segment files of a directory in the order they were written
+     * @param directory the directory
+     * @return the segment files
+     * @throws IOException if the directory can't be read
+     */
+    static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return files;
+    }
+
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private MappedByteBuffer segment(long number) {
+        MappedByteBuffer segment = segments.get(number);
+        return (segment != null) ? segment : mapSegment(number);
+    }
+
+    /**
+     * Maps a segment, under a lock of its own so a writer rolling over to a new segment doesn't wait for a flush
+     */
+    private MappedByteBuffer mapSegment(long number) {
+        synchronized (mapLock) {
+            MappedByteBuffer segment = segments.get(number);
+            if (segment != null) {
+                return segment;
+            }
+            Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments.put(number, segment);
+            return segment;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to flush journal", e);
+        }
+    }
+}
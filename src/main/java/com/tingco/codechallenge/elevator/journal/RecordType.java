@@ -0,0 +1,45 @@
+package com.tingco.codechallenge.elevator.journal;
+
+/**
+ * Types of journal records, a record is stored with its code, a code of 0 marks the end of the records of a segment
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public enum RecordType {
+
+    /**
+     * A request for the elevator to stop on the floor
+     */
+    MOVE_ELEVATOR,
+
+    /**
+     * A passenger entered on the floor, moving its request to the target floor
+     */
+    ENTER,
+
+    /**
+     * A passenger left on the floor
+     */
+    LEAVE,
+
+    /**
+     * A request on the floor was served without anyone entering or leaving
+     */
+    SERVE_STOP,
+
+    /**
+     * The elevator stopped on the floor, heading in a direction
+     */
+    STOP;
+
+    private static final RecordType[] TYPES = values();
+
+    int code() {
+        return ordinal() + 1;
+    }
+
+    static RecordType of(int code) {
+        return TYPES[code - 1];
+    }
+}
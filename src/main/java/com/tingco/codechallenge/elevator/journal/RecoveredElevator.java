@@ -0,0 +1,129 @@
+package com.tingco.codechallenge.elevator.journal;
+
+import com.google.common.base.MoreObjects;
+import com.tingco.codechallenge.elevator.api.Elevator;
+
+import java.util.Arrays;
+
+/**
+ * State of an elevator rebuilt from a snapshot and the journal. Records of changes the state already holds, with a
+ * state version up to the one of the state, are skipped.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class RecoveredElevator {
+
+    private static final Elevator.Direction[] DIRECTIONS = Elevator.Direction.values();
+
+    private final int id;
+    private int currentFloor;
+    private Elevator.Direction direction = Elevator.Direction.NONE;
+    private int nrOfPassengers;
+    private final int[] requests;
+    private final long baseVersion;
+    private long stateVersion;
+    private long stopVersion;
+
+    RecoveredElevator(int id, int nrOfFloors) {
+        this.id = id;
+        this.requests = new int[nrOfFloors];
+        this.baseVersion = 0;
+    }
+
+    RecoveredElevator(int id, long stateVersion, int currentFloor, Elevator.Direction direction, int nrOfPassengers,
+            int[] requests) {
+        this.id = id;
+        this.currentFloor = currentFloor;
+        this.direction = direction;
+        this.nrOfPassengers = nrOfPassengers;
+        this.requests = requests;
+        this.baseVersion = stateVersion;
+        this.stateVersion = stateVersion;
+        this.stopVersion = stateVersion;
+    }
+
+    void apply(RecordType type, long version, int floor, int argument) {
+        if (version <= baseVersion) {
+            return;
+        }
+        stateVersion = Math.max(stateVersion, version);
+        switch (type) {
+            case MOVE_ELEVATOR:
+                requests[floor]++;
+                break;
+            case ENTER:
+                requests[floor]--;
+                requests[argument]++;
+                nrOfPassengers++;
+                break;
+            case LEAVE:
+                requests[floor]--;
+                nrOfPassengers--;
+                break;
+            case SERVE_STOP:
+                requests[floor]--;
+                break;
+            case STOP:
+                // Stops may be appended out of order, the latest is the one with the highest version
+                if (version > stopVersion) {
+                    stopVersion = version;
+                    currentFloor = floor;
+                    direction = DIRECTIONS[argument];
+                }
+                break;
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * The state version of the last change
+     * @return the state version
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * The floor of the last stop
+     * @return the floor
+     */
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    public Elevator.Direction getDirection() {
+        return direction;
+    }
+
+    public int getNrOfPassengers() {
+        return Math.max(0, nrOfPassengers);
+    }
+
+    /**
+     * Pending requests per floor
+     * @return number of requests per floor
+     */
+    public int[] getRequests() {
+        int[] pending = new int[requests.length];
+        for (int floor = 0; floor < requests.length; floor++) {
+            pending[floor] = Math.max(0, requests[floor]);
+        }
+        return pending;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("id", id)
+                .add("stateVersion", stateVersion)
+                .add("currentFloor", currentFloor)
+                .add("direction", direction)
+                .add("nrOfPassengers", nrOfPassengers)
+                .add("requests", Arrays.toString(requests))
+                .toString();
+    }
+}
@@ -0,0 +1,195 @@
+package com.tingco.codechallenge.elevator.journal;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes and loads binary snapshots of the state of the elevators, so a restart only has to replay the journal
+ * written after the latest snapshot. The state is read from the published {@link ElevatorSnapshot}s, the elevators
+ * keep running while a snapshot is written. A snapshot holds the journal segment current when it was started; the
+ * records of earlier segments are all in the snapshot and those segments are deleted. Records of later changes that
+ * the snapshot already holds are skipped on replay by their state version.
+ *
+ * Format version {@value #FORMAT_VERSION}: magic, format version, journal segment, number of floors, number of
+ * elevators and per elevator its id, state version, floor, direction, passengers and the floors with requests.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class SnapshotStore {
+
+    private static final Logger LOGGER = Logger.getLogger(SnapshotStore.class.getName());
+
+    static final int MAGIC = 0x454c5653;
+    static final short FORMAT_VERSION = 1;
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final Elevator.Direction[] DIRECTIONS = Elevator.Direction.values();
+
+    private final Path directory;
+    private final int nrOfFloors;
+
+    public SnapshotStore(Path directory, int nrOfFloors) {
+        this.directory = directory;
+        this.nrOfFloors = nrOfFloors;
+    }
+
+    /**
+     * Writes a snapshot of the elevators and deletes the older snapshots and the journal segments it holds
+     * @param elevators the elevators
+     * @param journal the journal of the elevators
+     */
+    public synchronized void write(Collection<? extends Elevator> elevators, Journal journal) {
+        long segment = journal.currentSegment();
+        try {
+            Files.createDirectories(directory);
+            List<Path> previous = snapshotFiles(directory);
+            long number = previous.isEmpty() ? 0 : snapshotNumber(previous.get(previous.size() - 1)) + 1;
+            Path file = directory.resolve(String.format("%s%012d%s", SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeLong(segment);
+                out.writeInt(nrOfFloors);
+                out.writeInt(elevators.size());
+                for (Elevator elevator : elevators) {
+                    writeElevator(out, elevator.getSnapshot());
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+
+            for (Path old : previous) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        journal.deleteSegmentsBefore(segment);
+    }
+
+    /**
+     * Writes a snapshot, logging instead of throwing if it fails
+     * @param elevators the elevators
+     * @param journal the journal of the elevators
+     */
+    public void writeQuietly(Collection<? extends Elevator> elevators, Journal journal) {
+        try {
+            write(elevators, journal);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to write snapshot", e);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot and replays the journal written after it
+     * @return the elevators by id
+     */
+    public Map<Integer, RecoveredElevator> recover() {
+        Map<Integer, RecoveredElevator> elevators = new TreeMap<>();
+        long segment = 0;
+        try {
+            List<Path> files = snapshotFiles(directory);
+            if (!files.isEmpty()) {
+                segment = read(files.get(files.size() - 1), elevators);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return JournalReplay.replay(directory, nrOfFloors, segment, elevators);
+    }
+
+    private void writeElevator(DataOutputStream out, ElevatorSnapshot snapshot) throws IOException {
+        out.writeInt(snapshot.getId());
+        out.writeLong(snapshot.getStateVersion());
+        out.writeInt(snapshot.getCurrentFloor());
+        out.writeByte(snapshot.getDirection().ordinal());
+        out.writeInt(snapshot.getNrOfPassengers());
+        int floorsWithRequests = 0;
+        for (int floor = 0; floor < nrOfFloors; floor++) {
+            if (snapshot.countRequests(floor) > 0) {
+                floorsWithRequests++;
+            }
+        }
+        out.writeInt(floorsWithRequests);
+        for (int floor = 0; floor < nrOfFloors; floor++) {
+            int requests = snapshot.countRequests(floor);
+            if (requests > 0) {
+                out.writeInt(floor);
+                out.writeInt(requests);
+            }
+        }
+    }
+
+    private long read(Path file, Map<Integer, RecoveredElevator> elevators) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a snapshot", file));
+            }
+            short formatVersion = in.readShort();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(String.format("%s has unsupported format version=%d", file, formatVersion));
+            }
+            long segment = in.readLong();
+            int floors = in.readInt();
+            if (floors != nrOfFloors) {
+                throw new IOException(String.format("%s has %d floors, expected %d", file, floors, nrOfFloors));
+            }
+            int nrOfElevators = in.readInt();
+            for (int i = 0; i < nrOfElevators; i++) {
+                int id = in.readInt();
+                long stateVersion = in.readLong();
+                int currentFloor = in.readInt();
+                Elevator.Direction direction = DIRECTIONS[in.readByte()];
+                int nrOfPassengers = in.readInt();
+                int[] requests = new int[nrOfFloors];
+                int floorsWithRequests = in.readInt();
+                for (int j = 0; j < floorsWithRequests; j++) {
+                    int floor = in.readInt();
+                    requests[floor] = in.readInt();
+                }
+                elevators.put(id, new RecoveredElevator(id, stateVersion, currentFloor, direction, nrOfPassengers, requests));
+            }
+            return segment;
+        }
+    }
+
+    private static List<Path> snapshotFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort((a, b) -> Long.compare(snapshotNumber(a), snapshotNumber(b)));
+        return files;
+    }
+
+    private static long snapshotNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
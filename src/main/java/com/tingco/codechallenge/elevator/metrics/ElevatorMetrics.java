@@ -0,0 +1,116 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latencies of the elevator system, keyed by elevator, floor and direction of the call
+ * The wait time is from a hall call to the elevator stopping on the floor, the travel time from entering an elevator
+ * to the stop it is going to. Both are keyed by the floor and direction the trip starts from. A histogram is created
+ * the first time a key is recorded, after that recording doesn't allocate.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorMetrics {
+
+    private static final int NR_OF_DIRECTIONS = Elevator.Direction.values().length;
+
+    private final int nrOfElevators;
+    private final int nrOfFloors;
+    private final AtomicReferenceArray<LatencyHistogram> waitTimes;
+    private final AtomicReferenceArray<LatencyHistogram> travelTimes;
+
+    /**
+     * @param nrOfElevators number of elevators, elevators are expected to have ids from 0
+     * @param nrOfFloors number of floors
+     */
+    public ElevatorMetrics(int nrOfElevators, int nrOfFloors) {
+        this.nrOfElevators = nrOfElevators;
+        this.nrOfFloors = nrOfFloors;
+        this.waitTimes = new AtomicReferenceArray<>(nrOfElevators * nrOfFloors * NR_OF_DIRECTIONS);
+        this.travelTimes = new AtomicReferenceArray<>(nrOfElevators * nrOfFloors * NR_OF_DIRECTIONS);
+    }
+
+    /**
+     * Records the time from a hall call to the elevator stopping on the floor
+     * @param elevatorId the elevator that served the call
+     * @param floor the floor of the call
+     * @param direction the direction of the call
+     * @param timeMs the wait time in milliseconds
+     */
+    public void recordWaitTime(int elevatorId, int floor, Elevator.Direction direction, long timeMs) {
+        record(waitTimes, elevatorId, floor, direction, timeMs);
+    }
+
+    /**
+     * Records the time from entering an elevator to the elevator stopping on the target floor
+     * @param elevatorId the elevator
+     * @param floor the floor the passenger entered on
+     * @param direction the direction of the trip
+     * @param timeMs the travel time in milliseconds
+     */
+    public void recordTravelTime(int elevatorId, int floor, Elevator.Direction direction, long timeMs) {
+        record(travelTimes, elevatorId, floor, direction, timeMs);
+    }
+
+    /**
+     * Wait times of the matching keys
+     * @param elevatorId an elevator or null for all elevators
+     * @param floor a floor or null for all floors
+     * @param direction a direction or null for all directions
+     * @return the percentiles
+     */
+    public LatencySummary waitTimes(Integer elevatorId, Integer floor, Elevator.Direction direction) {
+        return summarize(waitTimes, elevatorId, floor, direction);
+    }
+
+    /**
+     * Travel times of the matching keys
+     * @param elevatorId an elevator or null for all elevators
+     * @param floor a floor or null for all floors
+     * @param direction a direction or null for all directions
+     * @return the percentiles
+     */
+    public LatencySummary travelTimes(Integer elevatorId, Integer floor, Elevator.Direction direction) {
+        return summarize(travelTimes, elevatorId, floor, direction);
+    }
+
+    private void record(AtomicReferenceArray<LatencyHistogram> histograms, int elevatorId, int floor,
+                        Elevator.Direction direction, long timeMs) {
+        if (elevatorId < 0 || elevatorId >= nrOfElevators || floor < 0 || floor >= nrOfFloors) {
+            return;
+        }
+        int index = index(elevatorId, floor, direction.ordinal());
+        LatencyHistogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histograms.compareAndSet(index, null, new LatencyHistogram());
+            histogram = histograms.get(index);
+        }
+        histogram.record(timeMs);
+    }
+
+    private LatencySummary summarize(AtomicReferenceArray<LatencyHistogram> histograms, Integer elevatorId, Integer floor,
+                                     Elevator.Direction direction) {
+        List<LatencyHistogram> matching = new ArrayList<>();
+        for (int e = 0; e < nrOfElevators; e++) {
+            for (int f = 0; f < nrOfFloors; f++) {
+                for (int d = 0; d < NR_OF_DIRECTIONS; d++) {
+                    LatencyHistogram histogram = histograms.get(index(e, f, d));
+                    if (histogram != null && (elevatorId == null || elevatorId == e) && (floor == null || floor == f)
+                            && (direction == null || direction.ordinal() == d)) {
+                        matching.add(histogram);
+                    }
+                }
+            }
+        }
+        return LatencySummary.of(matching);
+    }
+
+    private int index(int elevatorId, int floor, int direction) {
+        return (elevatorId * nrOfFloors + floor) * NR_OF_DIRECTIONS + direction;
+    }
+}
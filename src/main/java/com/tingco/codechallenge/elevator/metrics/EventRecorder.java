@@ -0,0 +1,179 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records events as primitive fields in a preallocated ring buffer, they are formatted and logged on a background
+ * thread. Recording never blocks and doesn't allocate, when the buffer is full the event is dropped and counted. An
+ * event whose logger doesn't log INFO isn't recorded at all, which costs a level check.
+ * Any number of threads can record, a slot is claimed by moving the claim sequence forward and published by writing
+ * its sequence number after the fields. The background thread is started by the first recorded event and sleeps while
+ * there is nothing to write, a recording thread wakes it when it has published an event.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class EventRecorder {
+
+    private static final Logger LOGGER = Logger.getLogger(EventRecorder.class.getName());
+    private static final EventType[] TYPES = EventType.values();
+
+    private final int mask;
+    private final int[] types;
+    private final int[] fields;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicInteger flushing = new AtomicInteger();
+    private volatile boolean writerWaiting;
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a recorder, its background thread is started by the first event
+     * @param capacity number of events the buffer holds, a power of two
+     */
+    public EventRecorder(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Capacity=%d is not a power of two", capacity));
+        }
+        this.mask = capacity - 1;
+        this.types = new int[capacity];
+        this.fields = new int[capacity * 4];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.lazySet(i, -1);
+        }
+
+        writer = new Thread(this::writeEvents, "event-recorder");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Records an event, see {@link EventType} for the fields of each type
+     * @param type the type of event
+     * @param first first field
+     * @param second second field
+     * @param third third field
+     * @param fourth fourth field
+     */
+    public void record(EventType type, int first, int second, int third, int fourth) {
+        if (!type.getLogger().isLoggable(Level.INFO)) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        types[slot] = type.ordinal();
+        fields[slot * 4] = first;
+        fields[slot * 4 + 1] = second;
+        fields[slot * 4 + 2] = third;
+        fields[slot * 4 + 3] = fourth;
+        published.set(slot, sequence);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            writer.start();
+        } else if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Number of events dropped because the buffer was full
+     * @return number of events
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Waits until the events recorded so far have been written
+     * @param timeout max time to wait
+     * @param unit unit of the timeout
+     * @return false if the events were not written in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long recorded = claimed.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        flushing.incrementAndGet();
+        try {
+            synchronized (this) {
+                while (consumed.get() < recorded) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            return true;
+        } finally {
+            flushing.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the background thread, events not written yet are lost
+     */
+    public void shutdown() {
+        shutdown = true;
+        writer.interrupt();
+    }
+
+    private void writeEvents() {
+        long sequence = consumed.get();
+        long droppedBefore = 0;
+        while (!shutdown && !Thread.currentThread().isInterrupted()) {
+            int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                long droppedNow = dropped.sum();
+                if (droppedNow != droppedBefore) {
+                    LOGGER.warning(String.format("Dropped %d events, the buffer was full", droppedNow - droppedBefore));
+                    droppedBefore = droppedNow;
+                }
+                // Announce the wait before checking again, so a recording thread publishing now sees it and unparks
+                writerWaiting = true;
+                if (published.get(slot) != sequence) {
+                    LockSupport.park(this);
+                }
+                writerWaiting = false;
+                continue;
+            }
+
+            EventType type = TYPES[types[slot]];
+            int first = fields[slot * 4];
+            int second = fields[slot * 4 + 1];
+            int third = fields[slot * 4 + 2];
+            int fourth = fields[slot * 4 + 3];
+            try {
+                type.getLogger().logp(Level.INFO, type.getSourceClass(), type.getSourceMethod(),
+                        type.format(first, second, third, fourth));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to write event", e);
+            }
+            consumed.set(++sequence);
+            if (flushing.get() > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+
+import java.util.logging.Logger;
+
+/**
+ * Events recorded by the {@link EventRecorder}, with the logger they are written to and how their fields are formatted
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public enum EventType {
+
+    /**
+     * Fields: elevator, floor, direction ordinal, nr of passengers
+     */
+    ELEVATOR_MOVED(ElevatorImpl.class, "moveToNextFloor") {
+        @Override
+        String format(int elevator, int floor, int direction, int nrOfPassengers) {
+            return String.format("Elevator=%d, is on floor=%d with direction=%s and nr of passengers=%d",
+                    elevator, floor, DIRECTIONS[direction], nrOfPassengers);
+        }
+    },
+
+    /**
+     * Fields: passenger, elevator, floor
+     */
+    PASSENGER_ENTERED(Passenger.class, "onStopEvent") {
+        @Override
+        String format(int passenger, int elevator, int floor, int unused) {
+            return String.format("Passenger=%d, enters elevator=%d on floor=%d", passenger, elevator, floor);
+        }
+    },
+
+    /**
+     * Fields: passenger, elevator, floor
+     */
+    PASSENGER_LEFT(Passenger.class, "onStopEvent") {
+        @Override
+        String format(int passenger, int elevator, int floor, int unused) {
+            return String.format("Passenger=%d, leaves elevator=%d on floor=%d", passenger, elevator, floor);
+        }
+    };
+
+    private static final Elevator.Direction[] DIRECTIONS = Elevator.Direction.values();
+
+    private final Logger logger;
+    private final String sourceClass;
+    private final String sourceMethod;
+
+    EventType(Class<?> source, String sourceMethod) {
+        this.logger = Logger.getLogger(source.getName());
+        this.sourceClass = source.getName();
+        this.sourceMethod = sourceMethod;
+    }
+
+    Logger getLogger() {
+        return logger;
+    }
+
+    String getSourceClass() {
+        return sourceClass;
+    }
+
+    String getSourceMethod() {
+        return sourceMethod;
+    }
+
+    abstract String format(int first, int second, int third, int fourth);
+}
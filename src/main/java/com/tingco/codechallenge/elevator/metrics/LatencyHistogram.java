@@ -0,0 +1,69 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies in milliseconds.
+ * Values below 32 have a bucket each, above that every power of two is split into 32 buckets, so a value is known
+ * within about 3%. Recording is a bucket index computed from the leading zeros of the value and an atomic increment,
+ * it never allocates. Values above {@link #MAX_VALUE}, about 50 days, are recorded as the max value.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int VALUE_BITS = 32;
+
+    public static final long MAX_VALUE = (1L << VALUE_BITS) - 1;
+    static final int NR_OF_BUCKETS = (VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NR_OF_BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency
+     * @param value latency in milliseconds
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        counts.incrementAndGet(index(value));
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Another thread recorded a new max, try again
+        }
+    }
+
+    /**
+     * Adds the counts of the histogram to the counts of a summary
+     * @param summaryCounts counts per bucket
+     * @return the highest value recorded
+     */
+    long addTo(long[] summaryCounts) {
+        for (int i = 0; i < NR_OF_BUCKETS; i++) {
+            summaryCounts[i] += counts.get(i);
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        int shift = Math.max(0, (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS);
+        return (int) ((value >>> shift) + ((long) shift << SUB_BUCKET_BITS));
+    }
+
+    /**
+     * Highest value counted in a bucket
+     */
+    static long highestValue(int index) {
+        int shift = (index < 2 * SUB_BUCKETS) ? 0 : (index >> SUB_BUCKET_BITS) - 1;
+        long top = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((top + 1) << shift) - 1;
+    }
+}
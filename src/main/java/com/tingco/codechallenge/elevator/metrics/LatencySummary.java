@@ -0,0 +1,91 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Collection;
+
+/**
+ * Percentiles of one or more latency histograms. A percentile is the highest value of the bucket it falls in, but
+ * never more than the max.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class LatencySummary {
+
+    private final long count;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    private LatencySummary(long count, long p50, long p90, long p99, long max) {
+        this.count = count;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * Summarizes histograms as if they were one
+     * @param histograms the histograms
+     * @return the summary
+     */
+    public static LatencySummary of(Collection<LatencyHistogram> histograms) {
+        long[] counts = new long[LatencyHistogram.NR_OF_BUCKETS];
+        long max = 0;
+        for (LatencyHistogram histogram : histograms) {
+            max = Math.max(max, histogram.addTo(counts));
+        }
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        return new LatencySummary(count, percentile(counts, count, 0.5, max), percentile(counts, count, 0.9, max),
+                percentile(counts, count, 0.99, max), max);
+    }
+
+    private static long percentile(long[] counts, long count, double percentile, long max) {
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(LatencyHistogram.highestValue(i), max);
+            }
+        }
+        return 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("count", count)
+                .add("p50", p50)
+                .add("p90", p90)
+                .add("p99", p99)
+                .add("max", max)
+                .toString();
+    }
+}
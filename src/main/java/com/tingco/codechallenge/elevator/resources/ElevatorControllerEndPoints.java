@@ -1,8 +1,31 @@
 package com.tingco.codechallenge.elevator.resources;
 
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorController;
+import com.tingco.codechallenge.elevator.api.ElevatorListener;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import com.tingco.codechallenge.elevator.domain.StopEvent;
+import com.tingco.codechallenge.elevator.metrics.ElevatorMetrics;
+import com.tingco.codechallenge.elevator.metrics.LatencySummary;
+import com.tingco.codechallenge.elevator.service.ElevatorStateFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * Rest Resource.
@@ -14,6 +37,21 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/rest/v1")
 public final class ElevatorControllerEndPoints {
 
+    private final ElevatorController elevatorController;
+    private final ElevatorStateFeed elevatorStateFeed;
+    private final ElevatorMetrics elevatorMetrics;
+    private final long callTimeoutMs;
+
+    @Autowired
+    public ElevatorControllerEndPoints(ElevatorController elevatorController, ElevatorStateFeed elevatorStateFeed,
+                                       ElevatorMetrics elevatorMetrics,
+                                       @Value("${com.tingco.elevator.rest.call.timeout.ms:600000}") long callTimeoutMs) {
+        this.elevatorController = elevatorController;
+        this.elevatorStateFeed = elevatorStateFeed;
+        this.elevatorMetrics = elevatorMetrics;
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
     /**
      * Ping service to test if we are alive.
      *
@@ -24,4 +62,191 @@ public final class ElevatorControllerEndPoints {
 
         return "pong";
     }
+
+    /**
+     * State of all elevators, read from their snapshots without blocking them.
+     *
+     * @return List of elevator snapshots
+     */
+    @RequestMapping(value = "/elevators", method = RequestMethod.GET)
+    public List<ElevatorSnapshot> elevators() {
+        return elevatorController.getElevators().stream()
+                .map(Elevator::getSnapshot)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Server sent events with the state of the elevators, first the current state of every elevator and then every
+     * change. States a slow client hasn't received yet are replaced by newer states of the same elevator, and a client
+     * that blocks a send for too long is disconnected.
+     *
+     * @return Stream of elevator snapshots
+     */
+    @RequestMapping(value = "/elevators/feed", method = RequestMethod.GET)
+    public SseEmitter feed() {
+        SseEmitter emitter = new SseEmitter(callTimeoutMs);
+        ElevatorStateFeed.Subscription subscription = elevatorStateFeed.subscribe(emitter::send,
+                elevatorController.getElevators(), emitter::complete);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        return emitter;
+    }
+
+    /**
+     * Hall call, requests an elevator to a floor. The request thread is released at once, the response is sent when
+     * the assigned elevator stops on the floor.
+     *
+     * @param floor the floor of the call
+     * @param direction the direction to travel
+     * @return State of the elevator when it arrived
+     */
+    @RequestMapping(value = "/calls", method = RequestMethod.POST)
+    public DeferredResult<ElevatorSnapshot> hallCall(@RequestParam int floor, @RequestParam Elevator.Direction direction) {
+        checkFloor(floor);
+        DeferredResult<ElevatorSnapshot> result = new DeferredResult<>(callTimeoutMs);
+        Elevator elevator = elevatorController.requestElevator(floor, direction);
+        // An elevator keeps stopping on a floor until its request there is served, so it can't pass unnoticed
+        answerOnArrival(elevator, floor, result);
+        return result;
+    }
+
+    /**
+     * Car call, a floor button pressed inside an elevator. The response is sent when the elevator stops on the floor.
+     *
+     * @param id the id of the elevator
+     * @param floor the floor to stop on
+     * @return State of the elevator when it arrived
+     */
+    @RequestMapping(value = "/elevators/{id}/calls", method = RequestMethod.POST)
+    public DeferredResult<ElevatorSnapshot> carCall(@PathVariable int id, @RequestParam int floor) {
+        Elevator elevator = findElevator(id);
+        checkFloor(floor);
+        DeferredResult<ElevatorSnapshot> result = new DeferredResult<>(callTimeoutMs);
+        answerOnArrival(elevator, floor, result);
+        elevatorController.sendElevator(elevator, floor);
+        return result;
+    }
+
+    /**
+     * Estimated time for an elevator to reach a floor, calculated from its snapshot without blocking it.
+     *
+     * @param id the id of the elevator
+     * @param floor the floor
+     * @param direction the direction to travel from the floor
+     * @return Estimated time
+     */
+    @RequestMapping(value = "/elevators/{id}/eta", method = RequestMethod.GET)
+    public Eta elevatorEta(@PathVariable int id, @RequestParam int floor, @RequestParam Elevator.Direction direction) {
+        Elevator elevator = findElevator(id);
+        checkFloor(floor);
+        return new Eta(id, floor, direction, elevator.getSnapshot().calculateTimeToFloor(floor, direction));
+    }
+
+    /**
+     * Shortest estimated time of any elevator to reach a floor, the elevator a hall call would be assigned.
+     *
+     * @param floor the floor
+     * @param direction the direction to travel from the floor
+     * @return Estimated time
+     */
+    @RequestMapping(value = "/floors/{floor}/eta", method = RequestMethod.GET)
+    public Eta floorEta(@PathVariable int floor, @RequestParam Elevator.Direction direction) {
+        checkFloor(floor);
+        Eta fastest = null;
+        for (Elevator elevator : elevatorController.getElevators()) {
+            long time = elevator.getSnapshot().calculateTimeToFloor(floor, direction);
+            if (fastest == null || time < fastest.getTimeMs()) {
+                fastest = new Eta(elevator.getId(), floor, direction, time);
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * Percentiles of the wait times, from hall call to the elevator stopping on the floor, and of the travel times,
+     * from entering to stopping on the target floor. Leaving out a parameter includes all of its values.
+     *
+     * @param elevator id of an elevator
+     * @param floor the floor the trips start from
+     * @param direction the direction of the trips
+     * @return Wait and travel time percentiles in milliseconds
+     */
+    @RequestMapping(value = "/metrics/latency", method = RequestMethod.GET)
+    public Map<String, LatencySummary> latency(@RequestParam(required = false) Integer elevator,
+                                               @RequestParam(required = false) Integer floor,
+                                               @RequestParam(required = false) Elevator.Direction direction) {
+        Map<String, LatencySummary> latency = new LinkedHashMap<>();
+        latency.put("waitTime", elevatorMetrics.waitTimes(elevator, floor, direction));
+        latency.put("travelTime", elevatorMetrics.travelTimes(elevator, floor, direction));
+        return latency;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    /**
+     * Answers a call when the elevator stops on its floor. If the call times out or its request ends before that, the
+     * listener holding the result is removed and the stop is served without an answer.
+     */
+    private static void answerOnArrival(Elevator elevator, int floor, DeferredResult<ElevatorSnapshot> result) {
+        Arrival arrival = new Arrival(result);
+        elevator.addElevatorListener(floor, arrival);
+        result.onTimeout(() -> arrival.abandon(elevator, floor));
+        result.onCompletion(() -> arrival.abandon(elevator, floor));
+    }
+
+    /**
+     * Listener answering a call, the first of arriving and abandoning wins
+     */
+    private static final class Arrival implements ElevatorListener {
+
+        private static final ElevatorListener SERVE_STOP = event -> {
+            event.getElevator().serveStop();
+            return true;
+        };
+
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final DeferredResult<ElevatorSnapshot> result;
+
+        private Arrival(DeferredResult<ElevatorSnapshot> result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean onStopEvent(StopEvent event) {
+            if (done.compareAndSet(false, true)) {
+                Elevator elevator = event.getElevator();
+                elevator.serveStop();
+                result.setResult(elevator.getSnapshot());
+            }
+            return true;
+        }
+
+        private void abandon(Elevator elevator, int floor) {
+            if (done.compareAndSet(false, true)) {
+                elevator.removeElevatorListener(this);
+                // The request still holds the elevator on the floor until it is served
+                elevator.addElevatorListener(floor, SERVE_STOP);
+            }
+        }
+    }
+
+    private Elevator findElevator(int id) {
+        for (Elevator elevator : elevatorController.getElevators()) {
+            if (elevator.getId() == id) {
+                return elevator;
+            }
+        }
+        throw new ElevatorNotFoundException(id);
+    }
+
+    private void checkFloor(int floor) {
+        int nrOfFloors = elevatorController.getElevators().get(0).getSnapshot().getNrOfFloors();
+        if (floor < 0 || floor >= nrOfFloors) {
+            throw new IllegalArgumentException(String.format("No floor=%d, floors are 0 to %d", floor, nrOfFloors - 1));
+        }
+    }
 }
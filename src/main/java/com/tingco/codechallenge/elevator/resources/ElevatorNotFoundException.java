@@ -0,0 +1,18 @@
+package com.tingco.codechallenge.elevator.resources;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request names an elevator that doesn't exist
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ElevatorNotFoundException extends RuntimeException {
+
+    public ElevatorNotFoundException(int id) {
+        super(String.format("No elevator with id=%d", id));
+    }
+}
@@ -0,0 +1,51 @@
+package com.tingco.codechallenge.elevator.resources;
+
+import com.google.common.base.MoreObjects;
+import com.tingco.codechallenge.elevator.api.Elevator;
+
+/**
+ * Estimated time for an elevator to reach a floor
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class Eta {
+
+    private final int elevatorId;
+    private final int floor;
+    private final Elevator.Direction direction;
+    private final long timeMs;
+
+    public Eta(int elevatorId, int floor, Elevator.Direction direction, long timeMs) {
+        this.elevatorId = elevatorId;
+        this.floor = floor;
+        this.direction = direction;
+        this.timeMs = timeMs;
+    }
+
+    public int getElevatorId() {
+        return elevatorId;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public Elevator.Direction getDirection() {
+        return direction;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("elevatorId", elevatorId)
+                .add("floor", floor)
+                .add("direction", direction)
+                .add("timeMs", timeMs)
+                .toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hall call demand learned from the calls made, counted by time of day, floor and direction. The day is divided in
+ * slots and the calls of a slot are counted over all days, so the demand of a slot is what usually happens at that
+ * time of day. Counting is lock free, a call is one atomic increment.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DemandModel {
+
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final int nrOfFloors;
+    private final long slotMs;
+    private final int nrOfSlots;
+    private final AtomicLongArray calls;
+
+    /**
+     * @param nrOfFloors number of floors
+     * @param slotMs length of a time slot, the day is divided in slots of this length
+     */
+    public DemandModel(int nrOfFloors, long slotMs) {
+        if (slotMs <= 0 || slotMs > DAY_MS) {
+            throw new IllegalArgumentException(String.format("Slot of %d ms doesn't divide a day", slotMs));
+        }
+        this.nrOfFloors = nrOfFloors;
+        this.slotMs = slotMs;
+        this.nrOfSlots = (int) ((DAY_MS + slotMs - 1) / slotMs);
+        this.calls = new AtomicLongArray(nrOfSlots * nrOfFloors * 2);
+    }
+
+    /**
+     * Counts a hall call
+     * @param timeMs time of the call
+     * @param floor floor of the call
+     * @param direction direction of the call
+     */
+    public void record(long timeMs, int floor, Elevator.Direction direction) {
+        calls.incrementAndGet(index(slot(timeMs), floor, direction));
+    }
+
+    /**
+     * Calls counted on a floor in a direction during the time slot of a time of day
+     * @param timeMs the time
+     * @param floor the floor
+     * @param direction the direction
+     * @return number of calls
+     */
+    public long calls(long timeMs, int floor, Elevator.Direction direction) {
+        return calls.get(index(slot(timeMs), floor, direction));
+    }
+
+    /**
+     * Expected demand on a floor in both directions, the calls of the time slot of the time and of the next slot
+     * @param timeMs the time
+     * @param floor the floor
+     * @return weight of the floor, higher for more calls
+     */
+    public long expectedCalls(long timeMs, int floor) {
+        return calls(timeMs, floor, Elevator.Direction.UP) + calls(timeMs, floor, Elevator.Direction.DOWN)
+                + calls(timeMs + slotMs, floor, Elevator.Direction.UP) + calls(timeMs + slotMs, floor, Elevator.Direction.DOWN);
+    }
+
+    public int getNrOfFloors() {
+        return nrOfFloors;
+    }
+
+    private int slot(long timeMs) {
+        return (int) (Math.floorMod(timeMs, DAY_MS) / slotMs);
+    }
+
+    private int index(int slot, int floor, Elevator.Direction direction) {
+        return (slot * nrOfFloors + floor) * 2 + ((direction == Elevator.Direction.DOWN) ? 1 : 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ParkingPolicy;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import com.tingco.codechallenge.elevator.simulation.SimulationClock;
+
+import java.util.List;
+
+/**
+ * Parks idle elevators where the next calls are likely. Every floor is worth its expected demand shared by the idle
+ * elevators already waiting or parking there, an idle elevator goes to the floor where it is worth the most. Busy
+ * floors get more than one elevator, e.g. the lobby in the morning.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DemandParkingPolicy implements ParkingPolicy {
+
+    private final DemandModel demand;
+    private final List<Elevator> elevators;
+    private final SimulationClock clock;
+
+    public DemandParkingPolicy(DemandModel demand, List<Elevator> elevators, SimulationClock clock) {
+        this.demand = demand;
+        this.elevators = elevators;
+        this.clock = clock;
+    }
+
+    @Override
+    public int parkingFloor(ElevatorSnapshot idle) {
+        int nrOfFloors = demand.getNrOfFloors();
+        int[] parked = new int[nrOfFloors];
+        for (Elevator elevator : elevators) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getId() != idle.getId() && snapshot.isIdle()) {
+                parked[snapshot.getAddressedFloor()]++;
+            }
+        }
+
+        long now = clock.now();
+        int best = -1;
+        double bestValue = 0;
+        for (int floor = 0; floor < nrOfFloors; floor++) {
+            double value = (double) demand.expectedCalls(now, floor) / (parked[floor] + 1);
+            // Staying wins a tie, it costs nothing
+            if (value > bestValue || (value == bestValue && value > 0 && floor == idle.getCurrentFloor())) {
+                best = floor;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+}
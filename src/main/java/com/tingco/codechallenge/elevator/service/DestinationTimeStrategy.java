@@ -0,0 +1,24 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+/**
+ * Estimated time to destination. The time to reach the floor plus the delay a new stop gives every passenger already
+ * in the elevator, so a full elevator isn't stopped for a call another elevator can take almost as fast.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DestinationTimeStrategy implements DispatchStrategy {
+
+    @Override
+    public long cost(Elevator elevator, ElevatorSnapshot snapshot, int floor, Elevator.Direction direction) {
+        long time = snapshot.calculateTimeToFloor(floor, direction);
+        if (snapshot.countRequests(floor) > 0) {
+            return time;
+        }
+        return time + snapshot.getNrOfPassengers() * elevator.getAvgWaitingTimePerStopMs();
+    }
+}
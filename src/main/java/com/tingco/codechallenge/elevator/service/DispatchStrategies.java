@@ -0,0 +1,53 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The dispatch strategies by the names used in configuration
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class DispatchStrategies {
+
+    public static final String NEAREST_CAR = "nearest-car";
+    public static final String ETA_GREEDY = "eta-greedy";
+    public static final String ZONING = "zoning";
+    public static final String DESTINATION_TIME = "destination-time";
+
+    private DispatchStrategies() {
+    }
+
+    /**
+     * Names of all strategies
+     * @return the names
+     */
+    public static List<String> names() {
+        return Arrays.asList(NEAREST_CAR, ETA_GREEDY, ZONING, DESTINATION_TIME);
+    }
+
+    /**
+     * Creates a strategy
+     * @param name name of the strategy
+     * @param nrOfElevators number of elevators
+     * @param nrOfFloors number of floors
+     * @return the strategy
+     */
+    public static DispatchStrategy create(String name, int nrOfElevators, int nrOfFloors) {
+        switch (name) {
+            case NEAREST_CAR:
+                return new NearestCarStrategy();
+            case ETA_GREEDY:
+                return new EtaGreedyStrategy();
+            case ZONING:
+                return new ZoningStrategy(nrOfElevators, nrOfFloors);
+            case DESTINATION_TIME:
+                return new DestinationTimeStrategy();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown dispatch strategy=%s, expected one of %s", name, names()));
+        }
+    }
+}
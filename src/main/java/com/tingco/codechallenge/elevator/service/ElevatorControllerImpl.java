@@ -1,12 +1,24 @@
 package com.tingco.codechallenge.elevator.service;
 
+import com.tingco.codechallenge.elevator.api.DispatchListener;
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
 import com.tingco.codechallenge.elevator.api.Elevator;
 import com.tingco.codechallenge.elevator.api.ElevatorController;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+import com.tingco.codechallenge.elevator.api.HallCall;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import com.tingco.codechallenge.elevator.domain.ElevatorStops;
+import com.tingco.codechallenge.elevator.metrics.ElevatorMetrics;
+import com.tingco.codechallenge.elevator.simulation.SimulationClock;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The controller that serves passengers with elevators
@@ -16,36 +28,268 @@ import java.util.concurrent.TimeUnit;
  */
 public class ElevatorControllerImpl implements ElevatorController {
 
-    private final ExecutorService taskExecutor;
+    /**
+     * Attempts to commit a choice of elevator before the elevator is assigned regardless of its state changes
+     */
+    private static final int MAX_DISPATCH_ATTEMPTS = 8;
+
+    /**
+     * Added to the cost of an elevator expected to be full when it reaches the floor, so it is only chosen when all
+     * elevators are full
+     */
+    private static final long FULL_ELEVATOR_PENALTY_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final ElevatorDriver driver;
 
     private final List<Elevator> elevators;
 
+    /**
+     * Destinations of passengers waiting for each elevator, by the index of the elevator. They become stops of the
+     * elevator when the passengers enter. Kept as stops, so the number of waiting passengers and their furthest
+     * destinations are read without scanning the floors.
+     */
+    private final List<AtomicReference<ElevatorStops>> waitingDestinations;
+
+    private volatile ElevatorMetrics metrics;
+
+    private volatile SimulationClock clock = SimulationClock.SYSTEM;
+
+    private volatile DemandModel demandModel;
+
+    private volatile DispatchStrategy dispatchStrategy = new EtaGreedyStrategy();
+
+    private volatile DispatchListener dispatchListener;
+
     public ElevatorControllerImpl(ExecutorService taskExecutor, List<Elevator> elevators) {
-        this.taskExecutor = taskExecutor;
-        this.elevators = Collections.synchronizedList(elevators);
+        this(new ExecutorElevatorDriver(taskExecutor), elevators);
+    }
+
+    /**
+     * Elevators that already have stops, e.g. restored from a journal, are started right away
+     */
+    public ElevatorControllerImpl(ElevatorDriver driver, List<Elevator> elevators) {
+        this.driver = driver;
+        this.elevators = new CopyOnWriteArrayList<>(elevators);
+        this.waitingDestinations = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            waitingDestinations.add(new AtomicReference<>(new ElevatorStops(elevator.getSnapshot().getNrOfFloors())));
+        }
+        for (Elevator elevator : elevators) {
+            if (!elevator.getSnapshot().isIdle()) {
+                startElevator(elevator);
+            }
+        }
+    }
+
+    /**
+     * Requests are not serialized, each request evaluates snapshots of the elevators on its own and commits its choice
+     * only if the chosen elevator is still in the state of the snapshot. Otherwise the choice is made again.
+     * The elevator with the lowest cost of the dispatch strategy is chosen. Elevators expected to be full on the floor
+     * are avoided, of elevators with the same cost the one expected to carry the fewest passengers is chosen.
+     */
+    @Override
+    public Elevator requestElevator(int toFloor, Elevator.Direction direction) {
+        recordDemand(toFloor, direction);
+        DispatchStrategy strategy = dispatchStrategy;
+        for (int attempt = 1; ; attempt++) {
+            Elevator fastest = elevators.get(0);
+            ElevatorSnapshot chosen = fastest.getSnapshot();
+            int chosenLoad = chosen.projectedLoad(toFloor);
+            long calculatedTime = cost(strategy, fastest, chosen, chosenLoad, toFloor, direction);
+            for (int i = 1; i < elevators.size(); i++) {
+                Elevator elevator = elevators.get(i);
+                ElevatorSnapshot snapshot = elevator.getSnapshot();
+                int load = snapshot.projectedLoad(toFloor);
+                long time = cost(strategy, elevator, snapshot, load, toFloor, direction);
+                if (time < calculatedTime || (time == calculatedTime && load < chosenLoad)) {
+                    calculatedTime = time;
+                    chosenLoad = load;
+                    fastest = elevator;
+                    chosen = snapshot;
+                }
+            }
+
+            if (attempt == MAX_DISPATCH_ATTEMPTS) {
+                fastest.moveElevator(toFloor);
+            } else if (fastest.moveElevator(toFloor, chosen.getStateVersion()) == -1) {
+                continue;
+            }
+            if (!chosen.isRunning()) {
+                startElevator(fastest);
+            }
+            recordWaitTime(fastest, toFloor, direction);
+            return fastest;
+        }
+    }
+
+    /**
+     * Destination dispatch, the passenger is grouped with the passengers of the elevator going to the same or nearby
+     * floors. The cost of an elevator is the estimated time to the floor of the passenger, plus for a destination that
+     * isn't already a stop of the elevator, or of a passenger waiting for it, the waiting time of the new stop for
+     * every passenger of the elevator and the time of travelling beyond its furthest stop. Requests are committed like
+     * in {@link #requestElevator(int, Elevator.Direction)}.
+     */
+    @Override
+    public Elevator requestDestination(int fromFloor, int toFloor) {
+        if (fromFloor == toFloor) {
+            throw new IllegalArgumentException(String.format("Passenger is already on floor=%d", toFloor));
+        }
+        Elevator.Direction direction = (toFloor > fromFloor) ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+        recordDemand(fromFloor, direction);
+        DispatchStrategy strategy = dispatchStrategy;
+        for (int attempt = 1; ; attempt++) {
+            int cheapest = 0;
+            ElevatorSnapshot chosen = null;
+            long lowestCost = Long.MAX_VALUE;
+            for (int i = 0; i < elevators.size(); i++) {
+                Elevator elevator = elevators.get(i);
+                ElevatorSnapshot snapshot = elevator.getSnapshot();
+                long cost = destinationCost(strategy, elevator, snapshot, waitingDestinations.get(i).get(), fromFloor,
+                        toFloor, direction);
+                if (cost < lowestCost) {
+                    lowestCost = cost;
+                    cheapest = i;
+                    chosen = snapshot;
+                }
+            }
+
+            Elevator elevator = elevators.get(cheapest);
+            if (attempt == MAX_DISPATCH_ATTEMPTS) {
+                elevator.moveElevator(fromFloor);
+            } else if (elevator.moveElevator(fromFloor, chosen.getStateVersion()) == -1) {
+                continue;
+            }
+            AtomicReference<ElevatorStops> destinations = waitingDestinations.get(cheapest);
+            destinations.updateAndGet(waiting -> waiting.increment(toFloor));
+            // The request holds the elevator on the floor until the passenger enters, so listening after the commit is fine
+            elevator.addElevatorListener(fromFloor, event -> {
+                destinations.updateAndGet(waiting -> waiting.decrement(toFloor));
+                return true;
+            });
+            if (!chosen.isRunning()) {
+                startElevator(elevator);
+            }
+            recordWaitTime(elevator, fromFloor, direction);
+            return elevator;
+        }
+    }
+
+    /**
+     * Cost of the dispatch strategy, with a penalty if the elevator is expected to be full on the floor
+     * @param load the projected load of the elevator on the floor
+     */
+    private static long cost(DispatchStrategy strategy, Elevator elevator, ElevatorSnapshot snapshot, int load,
+                             int floor, Elevator.Direction direction) {
+        long cost = strategy.cost(elevator, snapshot, floor, direction);
+        return (load >= snapshot.getCapacity()) ? cost + FULL_ELEVATOR_PENALTY_MS : cost;
+    }
+
+    private static long destinationCost(DispatchStrategy strategy, Elevator elevator, ElevatorSnapshot snapshot,
+                                        ElevatorStops waitingDestinations, int fromFloor, int toFloor,
+                                        Elevator.Direction direction) {
+        long cost = cost(strategy, elevator, snapshot, snapshot.projectedLoad(fromFloor), fromFloor, direction);
+        if (snapshot.countRequests(toFloor) > 0 || waitingDestinations.get(toFloor) > 0) {
+            return cost;
+        }
+
+        int passengers = snapshot.getNrOfPassengers() + waitingDestinations.countRequests();
+        int furthestStop;
+        if (direction == Elevator.Direction.UP) {
+            furthestStop = Math.max(fromFloor, Math.max(snapshot.getHighestStop(), waitingDestinations.lastStop()));
+        } else {
+            furthestStop = lowest(fromFloor, lowest(snapshot.getLowestStop(), waitingDestinations.firstStop()));
+        }
+        int beyondFurthestStop = Math.max(0, (direction == Elevator.Direction.UP) ? toFloor - furthestStop : furthestStop - toFloor);
+        return cost + (passengers + 1) * elevator.getAvgWaitingTimePerStopMs()
+                + beyondFurthestStop * elevator.getSpeedBetweenFloorsMs();
     }
 
+    /**
+     * The lower of two floors, -1 meaning no floor
+     */
+    private static int lowest(int floor, int other) {
+        if (floor == -1 || other == -1) {
+            return Math.max(floor, other);
+        }
+        return Math.min(floor, other);
+    }
+
+    /**
+     * Calls are assigned together with the Hungarian method. Every elevator has a column for each call it could be
+     * given, the k:th column of an elevator costs the cost of the dispatch strategy plus k waiting times, the delay of
+     * the stops given to the elevator in the same batch. Each call is committed on its own, like in
+     * {@link #requestElevator(int, Elevator.Direction)}, only if its elevator is still in the state of the snapshot or
+     * in the state left by the calls of the batch committed to it before. The calls that failed are assigned again with
+     * new snapshots, so the batch isn't committed all or nothing.
+     */
     @Override
-    public synchronized Elevator requestElevator(int toFloor, Elevator.Direction direction) {
-
-        Elevator fastest = elevators.get(0);
-        long calculatedTime = fastest.calculateTimeToFloor(toFloor, direction);
-        for (int i = 1; i < elevators.size(); i++) {
-            Elevator elevator = elevators.get(i);
-            long time;
-            if ((time = elevator.calculateTimeToFloor(toFloor, direction)) < calculatedTime) {
-                calculatedTime = time;
-                fastest = elevator;
+    public List<Elevator> requestElevators(Collection<HallCall> calls) {
+        List<HallCall> hallCalls = new ArrayList<>(calls);
+        List<Elevator> elevators = new ArrayList<>(this.elevators);
+        List<Elevator> assigned = new ArrayList<>(Collections.nCopies(hallCalls.size(), null));
+        for (HallCall call : hallCalls) {
+            recordDemand(call.getFloor(), call.getDirection());
+        }
+
+        DispatchStrategy strategy = dispatchStrategy;
+        List<Integer> pending = new ArrayList<>(hallCalls.size());
+        for (int c = 0; c < hallCalls.size(); c++) {
+            pending.add(c);
+        }
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            int nrOfCalls = pending.size();
+            ElevatorSnapshot[] snapshots = new ElevatorSnapshot[elevators.size()];
+            long[] stateVersions = new long[elevators.size()];
+            long[][] cost = new long[nrOfCalls][elevators.size() * nrOfCalls];
+            for (int e = 0; e < elevators.size(); e++) {
+                Elevator elevator = elevators.get(e);
+                ElevatorSnapshot snapshot = snapshots[e] = elevator.getSnapshot();
+                stateVersions[e] = snapshot.getStateVersion();
+                for (int c = 0; c < nrOfCalls; c++) {
+                    HallCall call = hallCalls.get(pending.get(c));
+                    long time = cost(strategy, elevator, snapshot, snapshot.projectedLoad(call.getFloor()),
+                            call.getFloor(), call.getDirection());
+                    for (int k = 0; k < nrOfCalls; k++) {
+                        cost[c][e * nrOfCalls + k] = time + k * elevator.getAvgWaitingTimePerStopMs();
+                    }
+                }
             }
-            if (time == calculatedTime) {
-                fastest = (elevator.getNrOfPassengers() < fastest.getNrOfPassengers()) ? elevator : fastest;
+
+            int[] assignment = HungarianAssignment.solve(cost);
+            List<Integer> failed = new ArrayList<>();
+            for (int c = 0; c < nrOfCalls; c++) {
+                int index = pending.get(c);
+                HallCall call = hallCalls.get(index);
+                int e = assignment[c] / nrOfCalls;
+                Elevator elevator = elevators.get(e);
+                if (attempt == MAX_DISPATCH_ATTEMPTS) {
+                    elevator.moveElevator(call.getFloor());
+                } else {
+                    long stateVersion = elevator.moveElevator(call.getFloor(), stateVersions[e]);
+                    if (stateVersion == -1) {
+                        failed.add(index);
+                        continue;
+                    }
+                    // The next call of the batch for the elevator was costed against the state left by this one
+                    stateVersions[e] = stateVersion;
+                }
+                if (!snapshots[e].isRunning()) {
+                    startElevator(elevator);
+                }
+                recordWaitTime(elevator, call.getFloor(), call.getDirection());
+                assigned.set(index, elevator);
             }
+            pending = failed;
         }
-        if(!fastest.isRunning()) {
-            startElevator(fastest);
+        return assigned;
+    }
+
+    @Override
+    public void sendElevator(Elevator elevator, int toFloor) {
+        elevator.moveElevator(toFloor);
+        if (!elevator.isRunning()) {
+            startElevator(elevator);
         }
-        fastest.moveElevator(toFloor);
-        return fastest;
     }
 
     @Override
@@ -59,26 +303,92 @@ public class ElevatorControllerImpl implements ElevatorController {
 
     }
 
+    /**
+     * Records wait times from hall calls to the elevators stopping on the floor
+     * @param metrics where to record, or null to not record
+     * @param clock the clock to measure with
+     */
+    public void setMetrics(ElevatorMetrics metrics, SimulationClock clock) {
+        this.clock = clock;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Ranks the elevators for calls
+     * @param dispatchStrategy the strategy
+     */
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    /**
+     * Counts the calls made in a demand model, e.g. to park idle elevators where calls are expected
+     * @param demandModel where to count, or null to not count
+     * @param clock the clock giving the time of the calls
+     */
+    public void setDemandModel(DemandModel demandModel, SimulationClock clock) {
+        this.clock = clock;
+        this.demandModel = demandModel;
+    }
+
+    /**
+     * Tells a listener about every elevator assigned to a call and about its arrival on the floor
+     * @param dispatchListener the listener, or null to not tell
+     * @param clock the clock giving the time of the calls and the arrivals
+     */
+    public void setDispatchListener(DispatchListener dispatchListener, SimulationClock clock) {
+        this.clock = clock;
+        this.dispatchListener = dispatchListener;
+    }
+
+    private void recordDemand(int floor, Elevator.Direction direction) {
+        DemandModel demandModel = this.demandModel;
+        if (demandModel != null) {
+            demandModel.record(clock.now(), floor, direction);
+        }
+    }
+
+    /**
+     * Starts a timer that stops when the elevator stops on the floor, and tells the dispatch listener about the
+     * assignment and the stop. Starting it after the commit is fine, the request holds the elevator on the floor until
+     * someone serves it.
+     */
+    private void recordWaitTime(Elevator elevator, int floor, Elevator.Direction direction) {
+        ElevatorMetrics metrics = this.metrics;
+        DispatchListener dispatchListener = this.dispatchListener;
+        if (metrics == null && dispatchListener == null) {
+            return;
+        }
+        SimulationClock clock = this.clock;
+        long called = clock.now();
+        if (dispatchListener != null) {
+            dispatchListener.onDispatch(called, floor, direction, elevator, elevator.calculateTimeToFloor(floor, direction));
+        }
+        elevator.addElevatorListener(floor, event -> {
+            long now = clock.now();
+            if (metrics != null) {
+                metrics.recordWaitTime(elevator.getId(), floor, direction, now - called);
+            }
+            if (dispatchListener != null) {
+                dispatchListener.onArrival(now, floor, direction, elevator, now - called);
+            }
+            return true;
+        });
+    }
+
     private synchronized void startElevator(Elevator elevator) {
-        elevator.start();
-        taskExecutor.execute(elevator);
+        if (!elevator.isRunning()) {
+            elevator.start();
+            driver.drive(elevator);
+        }
     }
 
     @Override
     public synchronized void stop() {
-        try {
-            for (Elevator elevator : elevators){
-                elevator.stop();
-            }
-
-            taskExecutor.awaitTermination(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } finally {
-            if (!taskExecutor.isTerminated()) {
-                taskExecutor.shutdownNow();
-            }
+        for (Elevator elevator : elevators){
+            elevator.stop();
         }
+        driver.shutdown();
     }
 
 }
@@ -0,0 +1,225 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorStateListener;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes the state changes of the elevators to subscribers.
+ * Every subscriber has a buffer of one state per elevator. A state that hasn't been sent yet is replaced by a newer
+ * state of the same elevator, so a slow subscriber skips intermediate positions instead of growing its buffer, and the
+ * elevators never wait for a subscriber. States are sent on the sender executor, one task at a time per subscriber.
+ * A subscriber blocked in a send for longer than the stall timeout, or whose send is rejected by the sender executor,
+ * is evicted. Eviction only removes the subscription, its close handler is called on the eviction executor, since
+ * states are offered while the elevator holds its monitor and the handler may wait for the blocked send. The blocked
+ * sender thread is left to the failing write, so the sender executor should be bounded and reject sends when it is
+ * busy instead of starting threads.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorStateFeed implements ElevatorStateListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ElevatorStateFeed.class.getName());
+
+    /**
+     * Time a subscriber may block in a send before it is evicted, unless another is given
+     */
+    public static final long DEFAULT_STALL_TIMEOUT_MS = 10_000;
+
+    private final Executor sender;
+    private final Executor evictor;
+    private final long stallTimeoutNs;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public ElevatorStateFeed(List<Elevator> elevators, Executor sender) {
+        this(elevators, sender, sender, DEFAULT_STALL_TIMEOUT_MS);
+    }
+
+    /**
+     * @param elevators the elevators whose states are pushed
+     * @param sender executor sending the states to the subscribers
+     * @param evictor executor calling the close handlers of evicted subscribers
+     * @param stallTimeoutMs time a subscriber may block in a send before it is evicted
+     */
+    public ElevatorStateFeed(List<Elevator> elevators, Executor sender, Executor evictor, long stallTimeoutMs) {
+        this.sender = sender;
+        this.evictor = evictor;
+        this.stallTimeoutNs = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+        for (Elevator elevator : elevators) {
+            elevator.addStateListener(this);
+        }
+    }
+
+    /**
+     * Receives state changes of the elevators
+     *
+     * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+     * @since 1.0.0
+     */
+    public interface Subscriber {
+        /**
+         * Sends a state to the subscriber, may block but is evicted if it blocks longer than the stall timeout
+         * @param snapshot the state
+         * @throws IOException if the subscriber can't be reached, the subscriber is then unsubscribed
+         */
+        void send(ElevatorSnapshot snapshot) throws IOException;
+    }
+
+    /**
+     * Subscribes to the feed, the subscriber first gets the current state of every elevator it's given
+     * @param subscriber the subscriber
+     * @param elevators elevators whose current state is sent first
+     * @return the subscription, to be cancelled when the subscriber goes away
+     */
+    public Subscription subscribe(Subscriber subscriber, List<Elevator> elevators) {
+        return subscribe(subscriber, elevators, () -> {});
+    }
+
+    /**
+     * Subscribes to the feed, the subscriber first gets the current state of every elevator it's given
+     * @param subscriber the subscriber
+     * @param elevators elevators whose current state is sent first
+     * @param onEvicted called on the eviction executor when the subscriber is evicted for blocking a send too long or
+     *                  for being rejected by the sender executor, e.g. to close its connection
+     * @return the subscription, to be cancelled when the subscriber goes away
+     */
+    public Subscription subscribe(Subscriber subscriber, List<Elevator> elevators, Runnable onEvicted) {
+        Subscription subscription = new Subscription(subscriber, onEvicted);
+        subscriptions.add(subscription);
+        for (Elevator elevator : elevators) {
+            subscription.offer(elevator.getSnapshot());
+        }
+        return subscription;
+    }
+
+    /**
+     * Number of subscribers
+     * @return number of subscribers
+     */
+    public int size() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onStateChange(ElevatorSnapshot snapshot) {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.isStalled(now)) {
+                subscription.evict();
+            } else {
+                subscription.offer(snapshot);
+            }
+        }
+    }
+
+    /**
+     * A subscriber and the states it hasn't been sent yet
+     */
+    public final class Subscription {
+        private final Subscriber subscriber;
+        private final Runnable onEvicted;
+        private final ConcurrentMap<Integer, ElevatorSnapshot> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean evicted = new AtomicBoolean();
+        /**
+         * Start of the send the subscriber is blocked in, or 0 when it isn't sending
+         */
+        private volatile long sendStartNs;
+
+        private Subscription(Subscriber subscriber, Runnable onEvicted) {
+            this.subscriber = subscriber;
+            this.onEvicted = onEvicted;
+        }
+
+        /**
+         * Stops sending states to the subscriber
+         */
+        public void cancel() {
+            subscriptions.remove(this);
+            pending.clear();
+        }
+
+        private boolean isStalled(long now) {
+            long start = sendStartNs;
+            return start != 0 && now - start > stallTimeoutNs;
+        }
+
+        /**
+         * Removes the subscription and closes the subscriber on the eviction executor, never blocks
+         */
+        private void evict() {
+            if (evicted.compareAndSet(false, true)) {
+                cancel();
+                try {
+                    evictor.execute(this::close);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down, the connection is closed with the server
+                }
+            }
+        }
+
+        private void close() {
+            LOGGER.log(Level.WARNING, "Subscriber blocked for more than {0} ms or too busy to send to, evicting it",
+                    TimeUnit.NANOSECONDS.toMillis(stallTimeoutNs));
+            try {
+                onEvicted.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Failed to close evicted subscriber", e);
+            }
+        }
+
+        private void offer(ElevatorSnapshot snapshot) {
+            pending.merge(snapshot.getId(), snapshot,
+                    (queued, offered) -> (offered.getStateVersion() > queued.getStateVersion()) ? offered : queued);
+            schedule();
+        }
+
+        /**
+         * Starts a send task unless one is running, so states of an elevator are sent one at a time and in order
+         */
+        private void schedule() {
+            if (!pending.isEmpty() && sending.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    evict();
+                }
+            }
+        }
+
+        private void send() {
+            for (Integer id : pending.keySet()) {
+                ElevatorSnapshot snapshot = pending.remove(id);
+                if (snapshot == null) {
+                    continue;
+                }
+                try {
+                    sendStartNs = Math.max(1, System.nanoTime());
+                    subscriber.send(snapshot);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.FINE, "Subscriber gone, cancelling subscription", e);
+                    cancel();
+                    return;
+                } finally {
+                    sendStartNs = 0;
+                }
+            }
+            sending.set(false);
+            // A state offered while sending found the task running, so it's sent by a new task
+            schedule();
+        }
+    }
+}
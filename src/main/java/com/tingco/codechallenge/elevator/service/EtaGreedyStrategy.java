@@ -0,0 +1,19 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+/**
+ * The elevator estimated to reach the floor first, serving its stops on the way
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class EtaGreedyStrategy implements DispatchStrategy {
+
+    @Override
+    public long cost(Elevator elevator, ElevatorSnapshot snapshot, int floor, Elevator.Direction direction) {
+        return snapshot.calculateTimeToFloor(floor, direction);
+    }
+}
@@ -0,0 +1,40 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives elevators in real time, each elevator runs its own loop on a thread of the executor
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ExecutorElevatorDriver implements ElevatorDriver {
+
+    private final ExecutorService taskExecutor;
+
+    public ExecutorElevatorDriver(ExecutorService taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void drive(Elevator elevator) {
+        taskExecutor.execute(elevator);
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            taskExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            if (!taskExecutor.isTerminated()) {
+                taskExecutor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.tingco.codechallenge.elevator.service;
+
+import java.util.Arrays;
+
+/**
+ * The Hungarian method, assigns every row of a cost matrix to a column of its own so that the total cost is the lowest.
+ * Runs in O(rows^2 * columns) time with potentials on the rows and columns.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+final class HungarianAssignment {
+
+    private static final long INFINITY = Long.MAX_VALUE / 4;
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * Solves the assignment problem
+     * @param cost the costs, rows by columns, with no more rows than columns and costs far below Long.MAX_VALUE
+     * @return the column of each row
+     */
+    static int[] solve(long[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int columns = cost[0].length;
+        if (rows > columns) {
+            throw new IllegalArgumentException(String.format("More rows=%d than columns=%d", rows, columns));
+        }
+
+        // Indexed from 1, column 0 is the row being added
+        long[] rowPotential = new long[rows + 1];
+        long[] columnPotential = new long[columns + 1];
+        int[] rowOfColumn = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+        long[] minSlack = new long[columns + 1];
+        boolean[] visited = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minSlack, INFINITY);
+            Arrays.fill(visited, false);
+
+            // Grows a tree of tight edges until it reaches a free column
+            do {
+                visited[column] = true;
+                int visitedRow = rowOfColumn[column];
+                long delta = INFINITY;
+                int nextColumn = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (!visited[j]) {
+                        long slack = cost[visitedRow - 1][j - 1] - rowPotential[visitedRow] - columnPotential[j];
+                        if (slack < minSlack[j]) {
+                            minSlack[j] = slack;
+                            previousColumn[j] = column;
+                        }
+                        if (minSlack[j] < delta) {
+                            delta = minSlack[j];
+                            nextColumn = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (visited[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            // Flips the augmenting path back to the row
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] assignment = new int[rows];
+        for (int j = 1; j <= columns; j++) {
+            if (rowOfColumn[j] != 0) {
+                assignment[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
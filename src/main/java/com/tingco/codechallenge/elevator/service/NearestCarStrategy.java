@@ -0,0 +1,19 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+/**
+ * The elevator closest to the floor, regardless of its direction and stops
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class NearestCarStrategy implements DispatchStrategy {
+
+    @Override
+    public long cost(Elevator elevator, ElevatorSnapshot snapshot, int floor, Elevator.Direction direction) {
+        return Math.abs(snapshot.getCurrentFloor() - floor) * elevator.getSpeedBetweenFloorsMs();
+    }
+}
@@ -0,0 +1,100 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives elevators in real time without a thread per elevator.
+ * Every movement of an elevator is a timed task on a shared scheduler, so a few threads can move any number of
+ * elevators. Elevators without stops are parked and don't use the scheduler until they get a new stop.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ScheduledElevatorDriver implements ElevatorDriver {
+
+    private final ScheduledExecutorService scheduler;
+    private final Set<Elevator> driving = ConcurrentHashMap.newKeySet();
+
+    public ScheduledElevatorDriver(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void drive(Elevator elevator) {
+        if (driving.add(elevator)) {
+            scheduler.execute(() -> arriveAtFloor(elevator));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            if (!scheduler.isTerminated()) {
+                scheduler.shutdownNow();
+            }
+            driving.clear();
+        }
+    }
+
+    private void arriveAtFloor(Elevator elevator) {
+        if (!elevator.isRunning()) {
+            release(elevator);
+            return;
+        }
+        if (elevator.park(() -> wakeUp(elevator))) {
+            return;
+        }
+
+        int addressedFloor = elevator.getAddressedFloor();
+        int nextFloor = elevator.moveToNextFloor();
+        if (nextFloor == addressedFloor) {
+            schedule(() -> closeDoors(elevator), elevator.getAvgWaitingTimePerStopMs());
+        } else {
+            schedule(() -> arriveAtFloor(elevator), elevator.getSpeedBetweenFloorsMs());
+        }
+    }
+
+    private void closeDoors(Elevator elevator) {
+        if (!elevator.isRunning()) {
+            release(elevator);
+            return;
+        }
+        schedule(() -> arriveAtFloor(elevator), elevator.getSpeedBetweenFloorsMs());
+    }
+
+    private void wakeUp(Elevator elevator) {
+        try {
+            scheduler.execute(() -> arriveAtFloor(elevator));
+        } catch (RejectedExecutionException e) {
+            // The driver has been shut down, the elevator stays where it is
+        }
+    }
+
+    private void release(Elevator elevator) {
+        driving.remove(elevator);
+        // The elevator may have been started again before it was released
+        if (elevator.isRunning()) {
+            drive(elevator);
+        }
+    }
+
+    private void schedule(Runnable task, long delayMs) {
+        try {
+            scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The driver has been shut down, the elevator stays where it is
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every elevator serves a zone of consecutive floors, elevator i the i:th zone, and all of them the lobby. Of the
+ * elevators of the zone the one estimated to reach the floor first is chosen, elevators of other zones only when the
+ * zone has no elevator.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ZoningStrategy implements DispatchStrategy {
+
+    private static final long OUT_OF_ZONE_PENALTY_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final int nrOfZones;
+    private final int nrOfFloors;
+
+    public ZoningStrategy(int nrOfElevators, int nrOfFloors) {
+        this.nrOfZones = Math.min(nrOfElevators, nrOfFloors);
+        this.nrOfFloors = nrOfFloors;
+    }
+
+    @Override
+    public long cost(Elevator elevator, ElevatorSnapshot snapshot, int floor, Elevator.Direction direction) {
+        long time = snapshot.calculateTimeToFloor(floor, direction);
+        return (floor == 0 || zone(floor) == snapshot.getId() % nrOfZones) ? time : time + OUT_OF_ZONE_PENALTY_MS;
+    }
+
+    /**
+     * The zone of a floor
+     * @param floor the floor
+     * @return the zone, from 0 for the lowest floors
+     */
+    public int zone(int floor) {
+        return (int) ((long) floor * nrOfZones / nrOfFloors);
+    }
+}
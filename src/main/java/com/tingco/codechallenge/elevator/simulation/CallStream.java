@@ -0,0 +1,251 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorController;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.domain.PassengerPool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A recorded stream of calls, passengers arriving on a floor at a time to travel to another floor. The same stream
+ * can be replayed any number of times, e.g. to compare dispatch strategies on exactly the same traffic, and it can be
+ * written to a file as CSV and read back to replay it in a later run. The calls are kept in primitive arrays, a call
+ * costs 16 bytes and no object.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class CallStream {
+
+    private static final int MAX_IDLE_PASSENGERS = 1024;
+    private static final String STREAM_HEADER = "durationMs,callsPerSecond";
+    private static final String CALLS_HEADER = "timeMs,fromFloor,toFloor";
+
+    private final long[] timesMs;
+    private final int[] fromFloors;
+    private final int[] toFloors;
+    private final long durationMs;
+    private final double callsPerSecond;
+
+    /**
+     * @param timesMs times of the calls from the start of the stream, in order
+     * @param fromFloors floors the passengers arrive on
+     * @param toFloors floors the passengers travel to
+     * @param durationMs time the stream covers
+     * @param callsPerSecond the rate the calls were made at
+     */
+    public CallStream(long[] timesMs, int[] fromFloors, int[] toFloors, long durationMs, double callsPerSecond) {
+        if (fromFloors.length != timesMs.length || toFloors.length != timesMs.length) {
+            throw new IllegalArgumentException(String.format("Calls have %d times, %d from floors and %d to floors",
+                    timesMs.length, fromFloors.length, toFloors.length));
+        }
+        this.timesMs = timesMs.clone();
+        this.fromFloors = fromFloors.clone();
+        this.toFloors = toFloors.clone();
+        this.durationMs = durationMs;
+        this.callsPerSecond = callsPerSecond;
+    }
+
+    /**
+     * Number of calls
+     * @return number of calls
+     */
+    public int size() {
+        return timesMs.length;
+    }
+
+    /**
+     * Time of a call from the start of the stream
+     * @param call index of the call
+     * @return time in milliseconds
+     */
+    public long getTimeMs(int call) {
+        return timesMs[call];
+    }
+
+    public int getFromFloor(int call) {
+        return fromFloors[call];
+    }
+
+    public int getToFloor(int call) {
+        return toFloors[call];
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public double getCallsPerSecond() {
+        return callsPerSecond;
+    }
+
+    /**
+     * Writes the stream as CSV, the duration and rate followed by the calls
+     * @param file the file to write
+     */
+    public void write(Path file) {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(STREAM_HEADER);
+            out.newLine();
+            out.write(durationMs + "," + callsPerSecond);
+            out.newLine();
+            out.write(CALLS_HEADER);
+            out.newLine();
+            for (int i = 0; i < timesMs.length; i++) {
+                out.write(timesMs[i] + "," + fromFloors[i] + "," + toFloors[i]);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a stream written by {@link #write(Path)}
+     * @param file the file to read
+     * @return the stream
+     */
+    public static CallStream read(Path file) {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            expectHeader(file, in.readLine(), STREAM_HEADER);
+            String[] stream = split(file, in.readLine(), 2);
+            expectHeader(file, in.readLine(), CALLS_HEADER);
+            Builder calls = new Builder(0);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] call = split(file, line, 3);
+                calls.add(Long.parseLong(call[0]), Integer.parseInt(call[1]), Integer.parseInt(call[2]));
+            }
+            return calls.build(Long.parseLong(stream[0]), Double.parseDouble(stream[1]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void expectHeader(Path file, String line, String header) throws IOException {
+        if (!header.equals(line)) {
+            throw new IOException(String.format("%s is not a call stream, expected %s but was %s", file, header, line));
+        }
+    }
+
+    private static String[] split(Path file, String line, int nrOfFields) throws IOException {
+        String[] fields = (line == null) ? new String[0] : line.split(",");
+        if (fields.length != nrOfFields) {
+            throw new IOException(String.format("%s has a malformed line=%s", file, line));
+        }
+        return fields;
+    }
+
+    /**
+     * Schedules the calls from now on, the engine has to be run for the passengers to arrive. Every passenger calls an
+     * elevator to the floor it arrives on and rides it to its target floor, or with destination dispatch calls an
+     * elevator to its target floor. A passenger whose elevator arrives full calls another one.
+     * Only the next call is scheduled at a time and the passengers come from a pool, so the memory used by the replay
+     * depends on the passengers travelling at the same time and not on the length of the stream.
+     * @param engine the engine to schedule the calls on
+     * @param controller the controller to call elevators from
+     * @param destinationDispatch true for destination calls, false for hall calls
+     * @return the pool of the passengers, counting them as they arrive, are picked up and are delivered
+     */
+    public PassengerPool replay(SimulationEngine engine, ElevatorController controller, boolean destinationDispatch) {
+        PassengerPool pool = new PassengerPool(MAX_IDLE_PASSENGERS);
+        if (timesMs.length > 0) {
+            engine.schedule(timesMs[0], new Replay(engine, controller, destinationDispatch, pool));
+        }
+        return pool;
+    }
+
+    /**
+     * Lets the passenger of the next call arrive and schedules the call after it
+     */
+    private final class Replay implements Runnable {
+
+        private final SimulationEngine engine;
+        private final ElevatorController controller;
+        private final boolean destinationDispatch;
+        private final PassengerPool pool;
+        private int next;
+
+        private Replay(SimulationEngine engine, ElevatorController controller, boolean destinationDispatch, PassengerPool pool) {
+            this.engine = engine;
+            this.controller = controller;
+            this.destinationDispatch = destinationDispatch;
+            this.pool = pool;
+        }
+
+        @Override
+        public void run() {
+            arrive(next);
+            next++;
+            if (next < timesMs.length) {
+                engine.schedule(timesMs[next] - timesMs[next - 1], this);
+            }
+        }
+
+        private void arrive(int call) {
+            int fromFloor = fromFloors[call];
+            int toFloor = toFloors[call];
+            Passenger passenger = pool.acquire(call);
+            passenger.addStop(fromFloor);
+            passenger.addStop(toFloor);
+            passenger.setController(controller, destinationDispatch);
+
+            if (destinationDispatch) {
+                passenger.assignElevator(controller.requestDestination(fromFloor, toFloor));
+            } else {
+                Elevator.Direction direction = (toFloor > fromFloor) ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+                passenger.assignElevator(controller.requestElevator(fromFloor, direction));
+            }
+        }
+    }
+
+    /**
+     * Collects calls in growing primitive arrays
+     */
+    static final class Builder {
+
+        private long[] timesMs;
+        private int[] fromFloors;
+        private int[] toFloors;
+        private int size;
+
+        /**
+         * @param expectedCalls number of calls expected, the arrays grow beyond it as needed
+         */
+        Builder(int expectedCalls) {
+            int capacity = Math.max(16, expectedCalls);
+            timesMs = new long[capacity];
+            fromFloors = new int[capacity];
+            toFloors = new int[capacity];
+        }
+
+        void add(long timeMs, int fromFloor, int toFloor) {
+            if (size == timesMs.length) {
+                int capacity = size * 2;
+                timesMs = Arrays.copyOf(timesMs, capacity);
+                fromFloors = Arrays.copyOf(fromFloors, capacity);
+                toFloors = Arrays.copyOf(toFloors, capacity);
+            }
+            timesMs[size] = timeMs;
+            fromFloors[size] = fromFloor;
+            toFloors[size] = toFloor;
+            size++;
+        }
+
+        CallStream build(long durationMs, double callsPerSecond) {
+            return new CallStream(Arrays.copyOf(timesMs, size), Arrays.copyOf(fromFloors, size),
+                    Arrays.copyOf(toFloors, size), durationMs, callsPerSecond);
+        }
+    }
+}
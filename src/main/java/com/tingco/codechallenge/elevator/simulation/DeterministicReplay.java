@@ -0,0 +1,79 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.service.EtaGreedyStrategy;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a scenario reproducibly to find performance regressions. The calls are generated from a seed and recorded, or
+ * read from an earlier recording, and replayed in simulated time, where the events are executed in the order of their
+ * time and, at the same time, in the order they were scheduled. Every run of the same calls therefore makes the same
+ * dispatch decisions at the same times, and the traces of two builds can be diffed line by line.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DeterministicReplay {
+
+    private final LoadTest building;
+
+    /**
+     * @param building the building to replay the calls in, its pattern, duration and seed are not used
+     */
+    public DeterministicReplay(LoadTest building) {
+        this.building = building;
+    }
+
+    /**
+     * Replays calls and traces the decisions
+     * @param calls the calls
+     * @return the trace
+     */
+    public DispatchTrace replay(CallStream calls) {
+        DispatchTrace trace = new DispatchTrace();
+        building.run(calls, new EtaGreedyStrategy(), trace);
+        return trace;
+    }
+
+    /**
+     * Replays a scenario from the command line
+     * @param args elevators, floors, capacity, the file of the calls and the file to write the trace to, followed by the
+     *             pattern, simulated minutes, calls per second and seed to generate and record the calls, or nothing
+     *             to read the recorded calls
+     */
+    public static void main(String[] args) {
+        if (args.length != 5 && args.length != 9) {
+            System.out.println("Usage: DeterministicReplay <elevators> <floors> <capacity> <calls.csv> <trace.txt> "
+                    + "[<UP_PEAK|DOWN_PEAK|LUNCH|INTER_FLOOR> <minutes> <calls per second> <seed>]");
+            return;
+        }
+        Logger.getLogger(ElevatorImpl.class.getName()).setLevel(Level.WARNING);
+        Logger.getLogger(Passenger.class.getName()).setLevel(Level.WARNING);
+
+        int nrOfElevators = Integer.parseInt(args[0]);
+        int nrOfFloors = Integer.parseInt(args[1]);
+        Path callsFile = Paths.get(args[3]);
+        CallStream calls;
+        if (args.length == 9) {
+            LoadTest generator = new LoadTest(nrOfElevators, nrOfFloors, 3000, 5000, TrafficPattern.valueOf(args[5]),
+                    Long.parseLong(args[6]) * 60_000, Long.parseLong(args[8]));
+            calls = generator.generateCalls(Double.parseDouble(args[7]));
+            calls.write(callsFile);
+        } else {
+            calls = CallStream.read(callsFile);
+        }
+
+        LoadTest building = new LoadTest(nrOfElevators, nrOfFloors, 3000, 5000, TrafficPattern.INTER_FLOOR,
+                calls.getDurationMs(), 0);
+        building.setCapacity(Integer.parseInt(args[2]));
+        DispatchTrace trace = new DeterministicReplay(building).replay(calls);
+        trace.write(Paths.get(args[4]));
+        System.out.println(String.format("Replayed %d calls, traced %d lines to %s", calls.size(),
+                trace.getLines().size(), args[4]));
+    }
+}
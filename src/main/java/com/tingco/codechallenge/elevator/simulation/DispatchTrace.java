@@ -0,0 +1,79 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.DispatchListener;
+import com.tingco.codechallenge.elevator.api.Elevator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trace of the decisions of a run, one line for every elevator assigned to a call with the time it was expected to
+ * take, and one line when it stops on the floor. A deterministic run gives the same trace every time, so a change in
+ * dispatching or in the time calculated to reach a floor shows as the first line that differs from the trace of an
+ * earlier run.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DispatchTrace implements DispatchListener {
+
+    private final List<String> lines = new ArrayList<>();
+
+    @Override
+    public void onDispatch(long timeMs, int floor, Elevator.Direction direction, Elevator elevator, long timeToFloorMs) {
+        add(String.format(Locale.ROOT, "%d dispatch floor=%d direction=%s elevator=%d timeToFloor=%d", timeMs, floor,
+                direction, elevator.getId(), timeToFloorMs));
+    }
+
+    @Override
+    public void onArrival(long timeMs, int floor, Elevator.Direction direction, Elevator elevator, long waitMs) {
+        add(String.format(Locale.ROOT, "%d arrive floor=%d direction=%s elevator=%d waited=%d", timeMs, floor,
+                direction, elevator.getId(), waitMs));
+    }
+
+    private synchronized void add(String line) {
+        lines.add(line);
+    }
+
+    /**
+     * Returns the lines traced so far
+     * @return the lines in the order they were traced
+     */
+    public synchronized List<String> getLines() {
+        return new ArrayList<>(lines);
+    }
+
+    /**
+     * Writes the lines traced so far, one per line
+     * @param file the file to write
+     */
+    public void write(Path file) {
+        try {
+            Files.write(file, getLines(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compares two traces
+     * @param expected the lines of the earlier trace
+     * @param actual the lines of the later trace
+     * @return the index of the first line that differs, or -1 if the traces are the same
+     */
+    public static int firstDifference(List<String> expected, List<String> actual) {
+        int lines = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < lines; i++) {
+            if (!expected.get(i).equals(actual.get(i))) {
+                return i;
+            }
+        }
+        return (expected.size() == actual.size()) ? -1 : lines;
+    }
+}
@@ -0,0 +1,218 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.DispatchListener;
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.domain.PassengerPool;
+import com.tingco.codechallenge.elevator.metrics.ElevatorMetrics;
+import com.tingco.codechallenge.elevator.service.DemandModel;
+import com.tingco.codechallenge.elevator.service.DemandParkingPolicy;
+import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import com.tingco.codechallenge.elevator.service.EtaGreedyStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Load test of the elevator system in simulated time. Every run drives a new building with traffic at one rate and
+ * measures how many calls per second are served and how long passengers wait and ride. The building is saturated at a
+ * rate when less than {@link #SATURATION_RATIO} of the passengers have reached their target floor at the end of the
+ * run, passengers then pile up faster than the elevators can deliver them. The run should be long compared to a trip, the
+ * passengers still travelling when it ends count as not delivered.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class LoadTest {
+
+    /**
+     * Share of the passengers that must have been delivered for the building not to be saturated
+     */
+    public static final double SATURATION_RATIO = 0.9;
+
+    /**
+     * Time slots of the demand learned for predictive parking
+     */
+    private static final long DEMAND_SLOT_MS = TimeUnit.MINUTES.toMillis(15);
+
+    private final int nrOfElevators;
+    private final int nrOfFloors;
+    private final long speedBetweenFloorsMs;
+    private final long avgWaitingTimePerStopMs;
+    private final TrafficPattern pattern;
+    private final long durationMs;
+    private final long seed;
+    private boolean destinationDispatch = false;
+    private int capacity = Integer.MAX_VALUE;
+    private boolean predictiveParking = false;
+    private DispatchStrategy dispatchStrategy = new EtaGreedyStrategy();
+
+    public LoadTest(int nrOfElevators, int nrOfFloors, long speedBetweenFloorsMs, long avgWaitingTimePerStopMs,
+                    TrafficPattern pattern, long durationMs, long seed) {
+        this.nrOfElevators = nrOfElevators;
+        this.nrOfFloors = nrOfFloors;
+        this.speedBetweenFloorsMs = speedBetweenFloorsMs;
+        this.avgWaitingTimePerStopMs = avgWaitingTimePerStopMs;
+        this.pattern = pattern;
+        this.durationMs = durationMs;
+        this.seed = seed;
+    }
+
+    /**
+     * Lets the passengers call elevators to their target floors instead of hall calls
+     * @param destinationDispatch true for destination dispatch
+     */
+    public void setDestinationDispatch(boolean destinationDispatch) {
+        this.destinationDispatch = destinationDispatch;
+    }
+
+    /**
+     * Limits the passengers in each elevator
+     * @param capacity the maximum number of passengers
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Parks idle elevators where calls are expected, learning the demand from the calls of the run
+     * @param predictiveParking true for predictive parking, false to leave idle elevators where they stopped
+     */
+    public void setPredictiveParking(boolean predictiveParking) {
+        this.predictiveParking = predictiveParking;
+    }
+
+    /**
+     * Ranks the elevators for calls
+     * @param dispatchStrategy the strategy
+     */
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    /**
+     * Generates the calls of a run, the same for every run at the rate
+     * @param callsPerSecond the offered rate of calls
+     * @return the calls
+     */
+    public CallStream generateCalls(double callsPerSecond) {
+        return new TrafficGenerator(pattern, nrOfFloors, callsPerSecond, new Random(seed)).generate(durationMs);
+    }
+
+    /**
+     * Runs the load test at one rate
+     * @param callsPerSecond the offered rate of hall calls
+     * @return the result
+     */
+    public LoadTestResult run(double callsPerSecond) {
+        return run(generateCalls(callsPerSecond), dispatchStrategy);
+    }
+
+    /**
+     * Runs the load test with recorded calls. Runs don't share any state, several can run at the same time.
+     * @param calls the calls
+     * @param dispatchStrategy the strategy ranking the elevators for the calls
+     * @return the result
+     */
+    public LoadTestResult run(CallStream calls, DispatchStrategy dispatchStrategy) {
+        return run(calls, dispatchStrategy, null);
+    }
+
+    /**
+     * Runs the load test with recorded calls, telling a listener about every dispatch decision. The run is
+     * deterministic, the same calls give the same decisions at the same simulated times.
+     * @param calls the calls
+     * @param dispatchStrategy the strategy ranking the elevators for the calls
+     * @param dispatchListener the listener, or null
+     * @return the result
+     */
+    public LoadTestResult run(CallStream calls, DispatchStrategy dispatchStrategy, DispatchListener dispatchListener) {
+        SimulationEngine engine = new SimulationEngine();
+        ElevatorMetrics metrics = new ElevatorMetrics(nrOfElevators, nrOfFloors);
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < nrOfElevators; i++) {
+            ElevatorImpl elevator = new ElevatorImpl(i, Elevator.Direction.NONE, 0, nrOfFloors, speedBetweenFloorsMs, avgWaitingTimePerStopMs);
+            elevator.setMetrics(metrics, engine.getClock());
+            elevator.setCapacity(capacity);
+            elevators.add(elevator);
+        }
+        ElevatorControllerImpl controller = new ElevatorControllerImpl(engine, elevators);
+        controller.setMetrics(metrics, engine.getClock());
+        controller.setDispatchStrategy(dispatchStrategy);
+        controller.setDispatchListener(dispatchListener, engine.getClock());
+        if (predictiveParking) {
+            DemandModel demand = new DemandModel(nrOfFloors, DEMAND_SLOT_MS);
+            controller.setDemandModel(demand, engine.getClock());
+            DemandParkingPolicy parking = new DemandParkingPolicy(demand, elevators, engine.getClock());
+            for (Elevator elevator : elevators) {
+                ((ElevatorImpl) elevator).setParkingPolicy(parking);
+            }
+        }
+
+        PassengerPool passengers = calls.replay(engine, controller, destinationDispatch);
+        engine.runFor(calls.getDurationMs());
+
+        int pickedUp = passengers.getPickedUp();
+        int delivered = passengers.getDelivered();
+        int nrOfCalls = passengers.getAcquired();
+        controller.stop();
+
+        return new LoadTestResult(calls.getCallsPerSecond(), nrOfCalls, pickedUp, delivered,
+                delivered * 1000.0 / calls.getDurationMs(), metrics.waitTimes(null, null, null),
+                metrics.travelTimes(null, null, null), delivered < SATURATION_RATIO * nrOfCalls);
+    }
+
+    /**
+     * Runs the load test at increasing rates until the building is saturated
+     * @param rates the rates of hall calls per second, in increasing order
+     * @return the results up to and including the first saturated rate
+     */
+    public List<LoadTestResult> findSaturation(double... rates) {
+        List<LoadTestResult> results = new ArrayList<>();
+        for (double rate : rates) {
+            LoadTestResult result = run(rate);
+            results.add(result);
+            if (result.isSaturated()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs the load test from the command line, with hall calls, with destination dispatch and with hall calls and
+     * predictive parking
+     * @param args elevators, floors, capacity, pattern, simulated minutes and the rates of calls per second to try
+     */
+    public static void main(String[] args) {
+        if (args.length < 6) {
+            System.out.println("Usage: LoadTest <elevators> <floors> <capacity> <UP_PEAK|DOWN_PEAK|LUNCH|INTER_FLOOR> <minutes> <calls per second>...");
+            return;
+        }
+        Logger.getLogger(ElevatorImpl.class.getName()).setLevel(Level.WARNING);
+        Logger.getLogger(Passenger.class.getName()).setLevel(Level.WARNING);
+
+        double[] rates = new double[args.length - 5];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = Double.parseDouble(args[i + 5]);
+        }
+        LoadTest loadTest = new LoadTest(Integer.parseInt(args[0]), Integer.parseInt(args[1]), 3000, 5000,
+                TrafficPattern.valueOf(args[3]), Long.parseLong(args[4]) * 60_000, 1);
+        loadTest.setCapacity(Integer.parseInt(args[2]));
+        String[] modes = {"Hall calls", "Destination dispatch", "Hall calls with predictive parking"};
+        for (int mode = 0; mode < modes.length; mode++) {
+            System.out.println(modes[mode]);
+            loadTest.setDestinationDispatch(mode == 1);
+            loadTest.setPredictiveParking(mode == 2);
+            for (LoadTestResult result : loadTest.findSaturation(rates)) {
+                System.out.println(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.google.common.base.MoreObjects;
+import com.tingco.codechallenge.elevator.metrics.LatencySummary;
+
+/**
+ * Result of a load test run at one rate
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class LoadTestResult {
+
+    private final double offeredCallsPerSecond;
+    private final int calls;
+    private final int pickedUp;
+    private final int delivered;
+    private final double servedCallsPerSecond;
+    private final LatencySummary waitTimes;
+    private final LatencySummary rideTimes;
+    private final boolean saturated;
+
+    LoadTestResult(double offeredCallsPerSecond, int calls, int pickedUp, int delivered, double servedCallsPerSecond,
+                   LatencySummary waitTimes, LatencySummary rideTimes, boolean saturated) {
+        this.offeredCallsPerSecond = offeredCallsPerSecond;
+        this.calls = calls;
+        this.pickedUp = pickedUp;
+        this.delivered = delivered;
+        this.servedCallsPerSecond = servedCallsPerSecond;
+        this.waitTimes = waitTimes;
+        this.rideTimes = rideTimes;
+        this.saturated = saturated;
+    }
+
+    public double getOfferedCallsPerSecond() {
+        return offeredCallsPerSecond;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public int getPickedUp() {
+        return pickedUp;
+    }
+
+    public int getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Passengers delivered to their target floor per second of the run
+     * @return calls per second
+     */
+    public double getServedCallsPerSecond() {
+        return servedCallsPerSecond;
+    }
+
+    /**
+     * Wait times of the passengers that were picked up
+     * @return the percentiles
+     */
+    public LatencySummary getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Ride times of the passengers that were delivered, from entering the elevator to leaving it
+     * @return the percentiles
+     */
+    public LatencySummary getRideTimes() {
+        return rideTimes;
+    }
+
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("offeredCallsPerSecond", offeredCallsPerSecond)
+                .add("servedCallsPerSecond", String.format("%.3f", servedCallsPerSecond))
+                .add("calls", calls)
+                .add("pickedUp", pickedUp)
+                .add("delivered", delivered)
+                .add("waitTimes", waitTimes)
+                .add("rideTimes", rideTimes)
+                .add("saturated", saturated)
+                .toString();
+    }
+}
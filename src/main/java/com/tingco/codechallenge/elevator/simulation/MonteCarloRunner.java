@@ -0,0 +1,201 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.metrics.LatencySummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs many independent load tests of every configuration of a grid, to choose the number of elevators, their speed
+ * and their waiting time per stop. Every run drives a building of its own in simulated time, with its own controller
+ * and elevators, and traffic from its own seed. The runs are split over the cores with fork/join, each run is written
+ * as a line of CSV as soon as it finishes, and the runs of each configuration are combined into {@link RunStatistics}.
+ * Run n of every configuration uses the same seed, so the configurations are compared on the same traffic.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class MonteCarloRunner {
+
+    /**
+     * Header of the CSV lines written for the runs
+     */
+    public static final String CSV_HEADER = "elevators,speedBetweenFloorsMs,avgWaitingTimePerStopMs,seed,calls,pickedUp,"
+            + "delivered,servedCallsPerSecond,p50WaitMs,p90WaitMs,p99WaitMs,maxWaitMs,saturated";
+
+    private final int nrOfFloors;
+    private final int capacity;
+    private final TrafficPattern pattern;
+    private final long durationMs;
+    private final double callsPerSecond;
+
+    /**
+     * @param nrOfFloors floors of the building
+     * @param capacity maximum number of passengers in each elevator
+     * @param pattern the traffic
+     * @param durationMs simulated time of each run
+     * @param callsPerSecond the offered rate of calls
+     */
+    public MonteCarloRunner(int nrOfFloors, int capacity, TrafficPattern pattern, long durationMs, double callsPerSecond) {
+        this.nrOfFloors = nrOfFloors;
+        this.capacity = capacity;
+        this.pattern = pattern;
+        this.durationMs = durationMs;
+        this.callsPerSecond = callsPerSecond;
+    }
+
+    /**
+     * Runs every configuration a number of times
+     * @param grid the configurations
+     * @param runsPerConfig the number of runs of each configuration
+     * @param firstSeed seed of the first run of each configuration, the following runs use the following seeds
+     * @param pool the pool to run on
+     * @param out where to write a CSV line per run as it finishes, without header, or null
+     * @return the statistics of each configuration, in the order of the grid
+     */
+    public Map<SimulationConfig, RunStatistics> run(List<SimulationConfig> grid, int runsPerConfig, long firstSeed,
+                                                    ForkJoinPool pool, Writer out) {
+        RunStatistics[] statistics = pool.invoke(new Runs(grid, runsPerConfig, firstSeed, out, 0, grid.size() * runsPerConfig));
+        Map<SimulationConfig, RunStatistics> results = new LinkedHashMap<>();
+        for (int i = 0; i < grid.size(); i++) {
+            results.put(grid.get(i), statistics[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Runs one configuration once
+     * @param config the configuration
+     * @param seed the seed of the traffic
+     * @return the result
+     */
+    public LoadTestResult runOnce(SimulationConfig config, long seed) {
+        LoadTest loadTest = new LoadTest(config.getNrOfElevators(), nrOfFloors, config.getSpeedBetweenFloorsMs(),
+                config.getAvgWaitingTimePerStopMs(), pattern, durationMs, seed);
+        loadTest.setCapacity(capacity);
+        return loadTest.run(callsPerSecond);
+    }
+
+    private static void write(Writer out, SimulationConfig config, long seed, LoadTestResult result) {
+        if (out == null) {
+            return;
+        }
+        LatencySummary waitTimes = result.getWaitTimes();
+        String line = String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%d,%.4f,%d,%d,%d,%d,%b%n", config.getNrOfElevators(),
+                config.getSpeedBetweenFloorsMs(), config.getAvgWaitingTimePerStopMs(), seed, result.getCalls(),
+                result.getPickedUp(), result.getDelivered(), result.getServedCallsPerSecond(), waitTimes.getP50(),
+                waitTimes.getP90(), waitTimes.getP99(), waitTimes.getMax(), result.isSaturated());
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Runs a range of the runs, run i is run i % runsPerConfig of configuration i / runsPerConfig. Returns the
+     * statistics of every configuration, empty for the configurations outside the range.
+     */
+    private final class Runs extends RecursiveTask<RunStatistics[]> {
+
+        private final List<SimulationConfig> grid;
+        private final int runsPerConfig;
+        private final long firstSeed;
+        private final Writer out;
+        private final int from;
+        private final int to;
+
+        private Runs(List<SimulationConfig> grid, int runsPerConfig, long firstSeed, Writer out, int from, int to) {
+            this.grid = grid;
+            this.runsPerConfig = runsPerConfig;
+            this.firstSeed = firstSeed;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RunStatistics[] compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Runs first = new Runs(grid, runsPerConfig, firstSeed, out, from, middle);
+                first.fork();
+                RunStatistics[] statistics = new Runs(grid, runsPerConfig, firstSeed, out, middle, to).compute();
+                RunStatistics[] other = first.join();
+                for (int i = 0; i < statistics.length; i++) {
+                    statistics[i].merge(other[i]);
+                }
+                return statistics;
+            }
+
+            RunStatistics[] statistics = new RunStatistics[grid.size()];
+            for (int i = 0; i < statistics.length; i++) {
+                statistics[i] = new RunStatistics();
+            }
+            if (from < to) {
+                int configIndex = from / runsPerConfig;
+                SimulationConfig config = grid.get(configIndex);
+                long seed = firstSeed + from % runsPerConfig;
+                LoadTestResult result = runOnce(config, seed);
+                write(out, config, seed, result);
+                statistics[configIndex].add(result);
+            }
+            return statistics;
+        }
+    }
+
+    private static int[] parseInts(String values) {
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static long[] parseLongs(String values) {
+        return Arrays.stream(values.split(",")).mapToLong(Long::parseLong).toArray();
+    }
+
+    /**
+     * Runs a grid from the command line, printing the statistics of every configuration
+     * @param args floors, capacity, pattern, simulated minutes, calls per second, runs per configuration, comma separated
+     *             numbers of elevators, speeds between floors and waiting times per stop, and the CSV file to write
+     * @throws IOException if the CSV file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 10) {
+            System.out.println("Usage: MonteCarloRunner <floors> <capacity> <UP_PEAK|DOWN_PEAK|LUNCH|INTER_FLOOR> <minutes> "
+                    + "<calls per second> <runs> <elevators,...> <speed ms,...> <waiting time ms,...> <file.csv>");
+            return;
+        }
+        Logger.getLogger(ElevatorImpl.class.getName()).setLevel(Level.WARNING);
+        Logger.getLogger(Passenger.class.getName()).setLevel(Level.WARNING);
+
+        MonteCarloRunner runner = new MonteCarloRunner(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                TrafficPattern.valueOf(args[2]), Long.parseLong(args[3]) * 60_000, Double.parseDouble(args[4]));
+        List<SimulationConfig> grid = SimulationConfig.grid(parseInts(args[6]), parseLongs(args[7]), parseLongs(args[8]));
+
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[9]), StandardCharsets.UTF_8)) {
+            out.write(CSV_HEADER + System.lineSeparator());
+            Map<SimulationConfig, RunStatistics> results = runner.run(grid, Integer.parseInt(args[5]), 1,
+                    ForkJoinPool.commonPool(), out);
+            for (Map.Entry<SimulationConfig, RunStatistics> result : results.entrySet()) {
+                System.out.println(result.getKey() + " " + result.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Statistics over independent load test runs of one configuration: the mean and the 95% confidence interval of the
+ * median and 90th percentile wait and of the served calls per second, and how many runs saturated the building.
+ * Statistics of disjoint runs are combined with {@link #merge(RunStatistics)}.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class RunStatistics {
+
+    private static final double Z_95 = 1.96;
+
+    private int runs;
+    private int saturated;
+    private final Moments p50Wait = new Moments();
+    private final Moments p90Wait = new Moments();
+    private final Moments served = new Moments();
+
+    /**
+     * Adds a run
+     * @param result the result of the run
+     */
+    public void add(LoadTestResult result) {
+        runs++;
+        if (result.isSaturated()) {
+            saturated++;
+        }
+        p50Wait.add(result.getWaitTimes().getP50());
+        p90Wait.add(result.getWaitTimes().getP90());
+        served.add(result.getServedCallsPerSecond());
+    }
+
+    /**
+     * Adds the runs of other statistics
+     * @param other the statistics to add
+     * @return these statistics
+     */
+    public RunStatistics merge(RunStatistics other) {
+        runs += other.runs;
+        saturated += other.saturated;
+        p50Wait.merge(other.p50Wait);
+        p90Wait.merge(other.p90Wait);
+        served.merge(other.served);
+        return this;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getSaturated() {
+        return saturated;
+    }
+
+    /**
+     * Mean of the median waits
+     * @return milliseconds
+     */
+    public double getMeanP50WaitMs() {
+        return p50Wait.mean();
+    }
+
+    /**
+     * Mean of the 90th percentile waits
+     * @return milliseconds
+     */
+    public double getMeanP90WaitMs() {
+        return p90Wait.mean();
+    }
+
+    /**
+     * Half the width of the 95% confidence interval of the mean of the 90th percentile waits
+     * @return milliseconds
+     */
+    public double getP90WaitMarginMs() {
+        return p90Wait.margin();
+    }
+
+    /**
+     * Mean of the passengers delivered per second
+     * @return calls per second
+     */
+    public double getMeanServedCallsPerSecond() {
+        return served.mean();
+    }
+
+    /**
+     * Half the width of the 95% confidence interval of the mean of the passengers delivered per second
+     * @return calls per second
+     */
+    public double getServedCallsPerSecondMargin() {
+        return served.margin();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("runs", runs)
+                .add("saturated", saturated)
+                .add("p50WaitMs", String.format("%.0f", getMeanP50WaitMs()))
+                .add("p90WaitMs", String.format("%.0f+-%.0f", getMeanP90WaitMs(), getP90WaitMarginMs()))
+                .add("servedCallsPerSecond", String.format("%.3f+-%.3f", getMeanServedCallsPerSecond(), getServedCallsPerSecondMargin()))
+                .toString();
+    }
+
+    /**
+     * Count, sum and sum of squares of a sample
+     */
+    private static final class Moments {
+
+        private long count;
+        private double sum;
+        private double sumOfSquares;
+
+        void add(double value) {
+            count++;
+            sum += value;
+            sumOfSquares += value * value;
+        }
+
+        void merge(Moments other) {
+            count += other.count;
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+        }
+
+        double mean() {
+            return (count == 0) ? 0 : sum / count;
+        }
+
+        double margin() {
+            if (count < 2) {
+                return 0;
+            }
+            double variance = Math.max(0, (sumOfSquares - sum * sum / count) / (count - 1));
+            return Z_95 * Math.sqrt(variance / count);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+/**
+ * Source of time for elevators and simulations
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public interface SimulationClock {
+
+    /**
+     * Clock following the wall clock
+     */
+    SimulationClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Current time
+     * @return time in milliseconds
+     */
+    long now();
+}
@@ -0,0 +1,82 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The settings of the elevators tried by a {@link MonteCarloRunner}, the same as com.tingco.elevator.numberofelevators,
+ * com.tingco.elevator.speed.between.floors.ms and com.tingco.elevator.average.waiting.time.per.stop.ms of the application
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public final class SimulationConfig {
+
+    private final int nrOfElevators;
+    private final long speedBetweenFloorsMs;
+    private final long avgWaitingTimePerStopMs;
+
+    public SimulationConfig(int nrOfElevators, long speedBetweenFloorsMs, long avgWaitingTimePerStopMs) {
+        this.nrOfElevators = nrOfElevators;
+        this.speedBetweenFloorsMs = speedBetweenFloorsMs;
+        this.avgWaitingTimePerStopMs = avgWaitingTimePerStopMs;
+    }
+
+    /**
+     * Returns every combination of the settings
+     * @param nrOfElevators the numbers of elevators to try
+     * @param speedsBetweenFloorsMs the speeds to try
+     * @param avgWaitingTimesPerStopMs the waiting times per stop to try
+     * @return the configurations, the number of elevators varying slowest
+     */
+    public static List<SimulationConfig> grid(int[] nrOfElevators, long[] speedsBetweenFloorsMs, long[] avgWaitingTimesPerStopMs) {
+        List<SimulationConfig> grid = new ArrayList<>();
+        for (int elevators : nrOfElevators) {
+            for (long speed : speedsBetweenFloorsMs) {
+                for (long waitingTime : avgWaitingTimesPerStopMs) {
+                    grid.add(new SimulationConfig(elevators, speed, waitingTime));
+                }
+            }
+        }
+        return grid;
+    }
+
+    public int getNrOfElevators() {
+        return nrOfElevators;
+    }
+
+    public long getSpeedBetweenFloorsMs() {
+        return speedBetweenFloorsMs;
+    }
+
+    public long getAvgWaitingTimePerStopMs() {
+        return avgWaitingTimePerStopMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SimulationConfig that = (SimulationConfig) o;
+        return nrOfElevators == that.nrOfElevators
+                && speedBetweenFloorsMs == that.speedBetweenFloorsMs
+                && avgWaitingTimePerStopMs == that.avgWaitingTimePerStopMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(nrOfElevators, speedBetweenFloorsMs, avgWaitingTimePerStopMs);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("nrOfElevators", nrOfElevators)
+                .add("speedBetweenFloorsMs", speedBetweenFloorsMs)
+                .add("avgWaitingTimePerStopMs", avgWaitingTimePerStopMs)
+                .toString();
+    }
+}
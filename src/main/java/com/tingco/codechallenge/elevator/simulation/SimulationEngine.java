@@ -0,0 +1,150 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Discrete event simulation of the elevators.
+ * Instead of sleeping between floors, the elevators are moved by "arrive at floor" and "doors close" events that are
+ * executed in time order while a virtual clock jumps from one event to the next. A simulated day therefore runs as
+ * fast as the events can be processed.
+ * Elevators without stops are parked and cost nothing until they get a new stop.
+ * The engine is not thread safe, elevators, controller and passengers must only be used from the thread running it.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class SimulationEngine implements ElevatorDriver {
+
+    private final VirtualClock clock;
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>();
+    private final Set<Elevator> driving = new HashSet<>();
+    private long sequence = 0;
+
+    public SimulationEngine() {
+        this(new VirtualClock());
+    }
+
+    public SimulationEngine(VirtualClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * The clock of the simulation
+     * @return a clock showing simulated time
+     */
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    @Override
+    public void drive(Elevator elevator) {
+        if (driving.add(elevator)) {
+            schedule(SimulationEvent.Type.ARRIVE_AT_FLOOR, elevator, null, 0);
+        }
+    }
+
+    /**
+     * Schedules an action in simulated time, e.g. a passenger arriving
+     * @param delayMs time from now in milliseconds
+     * @param action the action to execute
+     */
+    public void schedule(long delayMs, Runnable action) {
+        schedule(SimulationEvent.Type.ACTION, null, action, delayMs);
+    }
+
+    /**
+     * Executes the next event, moving the clock to the time of the event
+     * @return false if there are no more events
+     */
+    public boolean step() {
+        SimulationEvent event = events.poll();
+        if (event == null) {
+            return false;
+        }
+        clock.advanceTo(event.getTime());
+
+        switch (event.getType()) {
+            case ARRIVE_AT_FLOOR:
+                arriveAtFloor(event.getElevator());
+                break;
+            case DOORS_CLOSE:
+                closeDoors(event.getElevator());
+                break;
+            case ACTION:
+                event.getAction().run();
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Executes all events up to and including the given time and then moves the clock to it
+     * @param timeMs simulated time in milliseconds
+     */
+    public void runUntil(long timeMs) {
+        SimulationEvent next;
+        while ((next = events.peek()) != null && next.getTime() <= timeMs) {
+            step();
+        }
+        if (timeMs > clock.now()) {
+            clock.advanceTo(timeMs);
+        }
+    }
+
+    /**
+     * Executes all events during the given time from now
+     * @param durationMs simulated time in milliseconds
+     */
+    public void runFor(long durationMs) {
+        runUntil(clock.now() + durationMs);
+    }
+
+    /**
+     * Number of events waiting to be executed
+     * @return number of events
+     */
+    public int pendingEvents() {
+        return events.size();
+    }
+
+    @Override
+    public void shutdown() {
+        events.clear();
+        driving.clear();
+    }
+
+    private void arriveAtFloor(Elevator elevator) {
+        if (!elevator.isRunning()) {
+            driving.remove(elevator);
+            return;
+        }
+        if (elevator.park(() -> schedule(SimulationEvent.Type.ARRIVE_AT_FLOOR, elevator, null, 0))) {
+            return;
+        }
+
+        int addressedFloor = elevator.getAddressedFloor();
+        int nextFloor = elevator.moveToNextFloor();
+        if (nextFloor == addressedFloor) {
+            schedule(SimulationEvent.Type.DOORS_CLOSE, elevator, null, elevator.getAvgWaitingTimePerStopMs());
+        } else {
+            schedule(SimulationEvent.Type.ARRIVE_AT_FLOOR, elevator, null, elevator.getSpeedBetweenFloorsMs());
+        }
+    }
+
+    private void closeDoors(Elevator elevator) {
+        if (!elevator.isRunning()) {
+            driving.remove(elevator);
+            return;
+        }
+        schedule(SimulationEvent.Type.ARRIVE_AT_FLOOR, elevator, null, elevator.getSpeedBetweenFloorsMs());
+    }
+
+    private void schedule(SimulationEvent.Type type, Elevator elevator, Runnable action, long delayMs) {
+        events.add(new SimulationEvent(clock.now() + delayMs, sequence++, type, elevator, action));
+    }
+}
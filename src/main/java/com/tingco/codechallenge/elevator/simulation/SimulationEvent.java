@@ -0,0 +1,69 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.google.common.base.MoreObjects;
+import com.tingco.codechallenge.elevator.api.Elevator;
+
+/**
+ * An event scheduled at a point in simulated time
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+class SimulationEvent implements Comparable<SimulationEvent> {
+
+    /**
+     * Kind of event
+     */
+    enum Type {
+        ARRIVE_AT_FLOOR, DOORS_CLOSE, ACTION
+    }
+
+    private final long time;
+    private final long sequence;
+    private final Type type;
+    private final Elevator elevator;
+    private final Runnable action;
+
+    SimulationEvent(long time, long sequence, Type type, Elevator elevator, Runnable action) {
+        this.time = time;
+        this.sequence = sequence;
+        this.type = type;
+        this.elevator = elevator;
+        this.action = action;
+    }
+
+    long getTime() {
+        return time;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    Elevator getElevator() {
+        return elevator;
+    }
+
+    Runnable getAction() {
+        return action;
+    }
+
+    /**
+     * Events are ordered by time, events at the same time in the order they were scheduled
+     */
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int result = Long.compare(time, other.time);
+        return (result != 0) ? result : Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("time", time)
+                .add("sequence", sequence)
+                .add("type", type)
+                .add("elevator", (elevator == null) ? null : elevator.getId())
+                .toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.service.DispatchStrategies;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the same recorded calls through several dispatch strategies side by side. Every strategy drives a building of
+ * its own in simulated time, the buildings run in parallel.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class StrategyComparison {
+
+    private final LoadTest loadTest;
+
+    /**
+     * @param loadTest the building and the traffic to run the strategies in
+     */
+    public StrategyComparison(LoadTest loadTest) {
+        this.loadTest = loadTest;
+    }
+
+    /**
+     * Runs the calls through every strategy
+     * @param calls the calls
+     * @param strategies the strategies by name
+     * @return the results by name, in the order of the strategies
+     */
+    public Map<String, LoadTestResult> compare(CallStream calls, Map<String, DispatchStrategy> strategies) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(strategies.size(), Runtime.getRuntime().availableProcessors())));
+        try {
+            Map<String, Future<LoadTestResult>> running = new LinkedHashMap<>();
+            for (Map.Entry<String, DispatchStrategy> strategy : strategies.entrySet()) {
+                running.put(strategy.getKey(), executor.submit(() -> loadTest.run(calls, strategy.getValue())));
+            }
+            Map<String, LoadTestResult> results = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<LoadTestResult>> result : running.entrySet()) {
+                results.put(result.getKey(), result.getValue().get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while comparing strategies", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Strategy failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Compares strategies from the command line
+     * @param args elevators, floors, capacity, pattern, simulated minutes, calls per second and the names of the
+     *             strategies, all strategies if none are given
+     */
+    public static void main(String[] args) {
+        if (args.length < 6) {
+            System.out.println("Usage: StrategyComparison <elevators> <floors> <capacity> <UP_PEAK|DOWN_PEAK|LUNCH|INTER_FLOOR> <minutes> <calls per second> [strategy]...");
+            System.out.println("Strategies: " + DispatchStrategies.names());
+            return;
+        }
+        Logger.getLogger(ElevatorImpl.class.getName()).setLevel(Level.WARNING);
+        Logger.getLogger(Passenger.class.getName()).setLevel(Level.WARNING);
+
+        int nrOfElevators = Integer.parseInt(args[0]);
+        int nrOfFloors = Integer.parseInt(args[1]);
+        LoadTest loadTest = new LoadTest(nrOfElevators, nrOfFloors, 3000, 5000, TrafficPattern.valueOf(args[3]),
+                Long.parseLong(args[4]) * 60_000, 1);
+        loadTest.setCapacity(Integer.parseInt(args[2]));
+
+        List<String> names = new ArrayList<>();
+        for (int i = 6; i < args.length; i++) {
+            names.add(args[i]);
+        }
+        if (names.isEmpty()) {
+            names.addAll(DispatchStrategies.names());
+        }
+        Map<String, DispatchStrategy> strategies = new LinkedHashMap<>();
+        for (String name : names) {
+            strategies.put(name, DispatchStrategies.create(name, nrOfElevators, nrOfFloors));
+        }
+
+        CallStream calls = loadTest.generateCalls(Double.parseDouble(args[5]));
+        for (Map.Entry<String, LoadTestResult> result : new StrategyComparison(loadTest).compare(calls, strategies).entrySet()) {
+            System.out.println(String.format("%-20s %s", result.getKey(), result.getValue()));
+        }
+    }
+}
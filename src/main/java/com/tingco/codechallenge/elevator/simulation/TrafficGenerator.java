@@ -0,0 +1,47 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import java.util.Random;
+
+/**
+ * Passengers arriving at random. Arrivals are a Poisson process, the time between two arrivals is exponentially
+ * distributed around the mean given by the rate, and the floors of every trip follow the traffic pattern. The delays
+ * are calculated with {@link StrictMath}, so a seed gives the same calls on every JVM.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class TrafficGenerator {
+
+    private final TrafficPattern pattern;
+    private final int nrOfFloors;
+    private final double callsPerSecond;
+    private final Random random;
+
+    public TrafficGenerator(TrafficPattern pattern, int nrOfFloors, double callsPerSecond, Random random) {
+        this.pattern = pattern;
+        this.nrOfFloors = nrOfFloors;
+        this.callsPerSecond = callsPerSecond;
+        this.random = random;
+    }
+
+    /**
+     * Generates the calls of a period
+     * @param durationMs time passengers keep arriving
+     * @return the calls
+     */
+    public CallStream generate(long durationMs) {
+        CallStream.Builder calls = new CallStream.Builder((int) Math.min(Integer.MAX_VALUE / 2,
+                durationMs / 1000 * callsPerSecond));
+        long time = nextDelay();
+        while (time < durationMs) {
+            int[] trip = pattern.nextTrip(random, nrOfFloors);
+            calls.add(time, trip[0], trip[1]);
+            time += nextDelay();
+        }
+        return calls.build(durationMs, callsPerSecond);
+    }
+
+    private long nextDelay() {
+        return Math.round(-StrictMath.log(1 - random.nextDouble()) * 1000 / callsPerSecond);
+    }
+}
@@ -0,0 +1,61 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import java.util.Random;
+
+/**
+ * Where passengers come from and go to during a part of the day. Floor 0 is the lobby, a trip not from or to the lobby
+ * is between two other floors.
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public enum TrafficPattern {
+
+    /**
+     * Morning, almost everyone goes up from the lobby
+     */
+    UP_PEAK(0.9, 0.0),
+
+    /**
+     * Evening, almost everyone goes down to the lobby
+     */
+    DOWN_PEAK(0.0, 0.9),
+
+    /**
+     * Lunch, as many go out through the lobby as come back
+     */
+    LUNCH(0.45, 0.45),
+
+    /**
+     * Office hours, trips between any two floors
+     */
+    INTER_FLOOR(0.0, 0.0);
+
+    private final double fromLobby;
+    private final double toLobby;
+
+    TrafficPattern(double fromLobby, double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+
+    /**
+     * Draws the floors of a trip
+     * @param random source of randomness
+     * @param nrOfFloors number of floors, at least two
+     * @return the floor to travel from and the floor to travel to, never the same
+     */
+    public int[] nextTrip(Random random, int nrOfFloors) {
+        double draw = random.nextDouble();
+        int upperFloor = 1 + random.nextInt(nrOfFloors - 1);
+        if (draw < fromLobby) {
+            return new int[]{0, upperFloor};
+        }
+        if (draw < fromLobby + toLobby) {
+            return new int[]{upperFloor, 0};
+        }
+        int from = random.nextInt(nrOfFloors);
+        int to = random.nextInt(nrOfFloors - 1);
+        return new int[]{from, (to >= from) ? to + 1 : to};
+    }
+}
@@ -0,0 +1,36 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+/**
+ * A clock that only moves when a simulation advances it
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class VirtualClock implements SimulationClock {
+
+    private volatile long now;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    public VirtualClock(long startTimeMs) {
+        this.now = startTimeMs;
+    }
+
+    @Override
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Moves the clock forward
+     * @param timeMs the new time, must not be before current time
+     */
+    void advanceTo(long timeMs) {
+        if (timeMs < now) {
+            throw new IllegalArgumentException(String.format("Can't move clock back from %d to %d", now, timeMs));
+        }
+        now = timeMs;
+    }
+}
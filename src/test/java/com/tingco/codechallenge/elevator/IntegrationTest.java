@@ -55,8 +55,8 @@ public class IntegrationTest {
             if(passenger.isWaiting() || passenger.isInElevator()){
                 continue;
             }
-            Integer nextFloor = passenger.getNextFloor();
-            if(nextFloor == null) {
+            int nextFloor = passenger.getNextFloor();
+            if(nextFloor == Passenger.NO_FLOOR) {
                 passengers.remove(passenger);
                 continue;
             }
@@ -0,0 +1,44 @@
+package com.tingco.codechallenge.elevator;
+
+import org.junit.rules.ExternalResource;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs only warnings from the loggers of some classes during a test and restores their levels afterwards
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class QuietLoggers extends ExternalResource {
+
+    private final Logger[] loggers;
+    private final Level[] levels;
+
+    /**
+     * @param classes the classes whose loggers are quieted
+     */
+    public QuietLoggers(Class<?>... classes) {
+        this.loggers = new Logger[classes.length];
+        this.levels = new Level[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            loggers[i] = Logger.getLogger(classes[i].getName());
+        }
+    }
+
+    @Override
+    protected void before() {
+        for (int i = 0; i < loggers.length; i++) {
+            levels[i] = loggers[i].getLevel();
+            loggers[i].setLevel(Level.WARNING);
+        }
+    }
+
+    @Override
+    protected void after() {
+        for (int i = 0; i < loggers.length; i++) {
+            loggers[i].setLevel(levels[i]);
+        }
+    }
+}
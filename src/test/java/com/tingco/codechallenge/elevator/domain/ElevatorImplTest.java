@@ -0,0 +1,279 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the estimated times to floors, conditional stops, floor listeners and full elevators passing waiting
+ * passengers
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorImplTest {
+
+    private static final long SPEED_BETWEEN_FLOORS_MS = 3000;
+    private static final long WAITING_TIME_PER_STOP_MS = 5000;
+
+    @Test
+    public void estimatesTimeOfIdleElevator() {
+        ElevatorImpl elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+
+        Assert.assertEquals(WAITING_TIME_PER_STOP_MS + 6 * SPEED_BETWEEN_FLOORS_MS, elevator.calculateTimeToFloor(5, Elevator.Direction.UP));
+    }
+
+    @Test
+    public void remembersTimesOnlyForTheirStateVersion() {
+        ElevatorImpl elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        ElevatorSnapshot before = elevator.getSnapshot();
+        long time = before.calculateTimeToFloor(5, Elevator.Direction.UP);
+        Assert.assertEquals(time, before.calculateTimeToFloor(5, Elevator.Direction.UP));
+
+        elevator.moveElevator(3);
+
+        Assert.assertEquals(time + WAITING_TIME_PER_STOP_MS, elevator.calculateTimeToFloor(5, Elevator.Direction.UP));
+        Assert.assertEquals(time, before.calculateTimeToFloor(5, Elevator.Direction.UP));
+    }
+
+    @Test
+    public void addsStopOnlyIfStateIsUnchanged() {
+        ElevatorImpl elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        long stateVersion = elevator.getStateVersion();
+
+        long movedVersion = elevator.moveElevator(3, stateVersion);
+        Assert.assertEquals(elevator.getStateVersion(), movedVersion);
+        Assert.assertEquals(-1, elevator.moveElevator(5, stateVersion));
+        Assert.assertEquals(3, elevator.getAddressedFloor());
+
+        stateVersion = elevator.getStateVersion();
+        elevator.moveToNextFloor();
+        Assert.assertEquals(-1, elevator.moveElevator(5, stateVersion));
+        Assert.assertNotEquals(-1, elevator.moveElevator(5, elevator.getStateVersion()));
+    }
+
+    @Test
+    public void callsFloorListenersOnlyOnTheirFloor() {
+        ElevatorImpl elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        List<Integer> calls = new ArrayList<>();
+        ElevatorListener leaving = event -> {
+            calls.add(event.getFloor());
+            event.getElevator().leave();
+            return true;
+        };
+        elevator.addElevatorListener(3, leaving);
+        elevator.addElevatorListener(5, leaving);
+        elevator.addElevatorListener(8, leaving);
+
+        elevator.moveElevator(3);
+        elevator.moveElevator(5);
+        for (int i = 0; i < 7; i++) {
+            elevator.moveToNextFloor();
+        }
+
+        Assert.assertEquals(Arrays.asList(3, 5), calls);
+        Assert.assertEquals(5, elevator.currentFloor());
+    }
+
+    @Test
+    public void fullElevatorPassesWaitingPassengers() {
+        ElevatorImpl elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        elevator.setCapacity(1);
+        List<Integer> pickups = new ArrayList<>();
+        elevator.addElevatorListener(3, event -> pickups.add(event.getFloor()));
+
+        elevator.moveElevator(0);
+        Assert.assertTrue(elevator.enter(7));
+        elevator.moveElevator(3);
+        Assert.assertFalse(elevator.enter(4));
+        Assert.assertTrue(elevator.getSnapshot().isFull());
+        Assert.assertEquals(7, elevator.getAddressedFloor());
+
+        while (elevator.moveToNextFloor() != 7) {
+        }
+        Assert.assertTrue(pickups.isEmpty());
+
+        elevator.leave();
+        Assert.assertEquals(0, elevator.getSnapshot().projectedLoad(3));
+        while (elevator.moveToNextFloor() != 3) {
+        }
+        Assert.assertEquals(Arrays.asList(3), pickups);
+    }
+
+    @Test
+    public void fullElevatorEstimatesTimeOverItsNextDestination() {
+        ElevatorImpl full = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        ElevatorImpl withRoom = new ElevatorImpl(1, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        full.setCapacity(1);
+        withRoom.setCapacity(2);
+        for (ElevatorImpl elevator : Arrays.asList(full, withRoom)) {
+            elevator.moveElevator(0);
+            Assert.assertTrue(elevator.enter(7));
+            elevator.moveElevator(3);
+        }
+
+        Assert.assertEquals(8 * SPEED_BETWEEN_FLOORS_MS + 2 * WAITING_TIME_PER_STOP_MS, withRoom.calculateTimeToFloor(3, Elevator.Direction.UP));
+        // The full elevator passes floor 3 and serves it on the way back after the passenger has left on floor 7
+        Assert.assertEquals(8 * SPEED_BETWEEN_FLOORS_MS + WAITING_TIME_PER_STOP_MS, full.calculateTimeToFloor(7, Elevator.Direction.UP));
+        Assert.assertEquals(13 * SPEED_BETWEEN_FLOORS_MS + 2 * WAITING_TIME_PER_STOP_MS, full.calculateTimeToFloor(3, Elevator.Direction.UP));
+    }
+
+    @Test
+    public void estimatesTimeLikeAWalkOverTheStops() {
+        Random random = new Random(7);
+        Elevator.Direction[] directions = Elevator.Direction.values();
+
+        for (int i = 0; i < 5000; i++) {
+            int nrOfFloors = 2 + random.nextInt(150);
+            int currentFloor = random.nextInt(nrOfFloors);
+            Elevator.Direction direction = directions[random.nextInt(directions.length)];
+            ElevatorImpl elevator = new ElevatorImpl(0, direction, currentFloor, nrOfFloors, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+
+            int[] stops = new int[nrOfFloors];
+            int nrOfRequests = random.nextInt(12);
+            for (int j = 0; j < nrOfRequests; j++) {
+                int floor = random.nextInt(nrOfFloors);
+                stops[floor]++;
+                elevator.moveElevator(floor);
+            }
+
+            Walk walk = new Walk(direction, currentFloor, stops);
+            for (int j = 0; j < 10; j++) {
+                int toFloor = random.nextInt(nrOfFloors);
+                Elevator.Direction callDirection = directions[random.nextInt(2)];
+                Assert.assertEquals(String.format("direction=%s, floor=%d, stops=%s, to=%d %s", direction, currentFloor, Arrays.toString(stops), toFloor, callDirection),
+                        walk.calculateTimeToFloor(toFloor, callDirection), elevator.calculateTimeToFloor(toFloor, callDirection));
+            }
+        }
+    }
+
+    /**
+     * Estimates the time by walking floor by floor over a copy of the stops
+     */
+    private static class Walk {
+        private final Elevator.Direction direction;
+        private final int currentFloor;
+        private final int[] elevatorStops;
+
+        Walk(Elevator.Direction direction, int currentFloor, int[] elevatorStops) {
+            this.direction = direction;
+            this.currentFloor = currentFloor;
+            this.elevatorStops = elevatorStops;
+        }
+
+        long calculateTimeToFloor(int toFloor, Elevator.Direction direction) {
+            switch (this.direction) {
+                case UP:
+                    if (direction.equals(Elevator.Direction.DOWN)) {
+                        return calculateTimeGoingUp(currentFloor, lastStopUp()) + calculateTimeGoingDown(lastStopUp(), toFloor);
+                    }
+                    return calculateTimeGoingUp(currentFloor, toFloor);
+                case DOWN:
+                    if (direction.equals(Elevator.Direction.UP)) {
+                        return calculateTimeGoingDown(currentFloor, lastStopDown()) + calculateTimeGoingUp(lastStopDown(), toFloor);
+                    }
+                    return calculateTimeGoingDown(currentFloor, toFloor);
+                default:
+                    if (toFloor >= currentFloor) {
+                        return calculateTimeGoingUp(currentFloor, toFloor);
+                    }
+                    return calculateTimeGoingDown(currentFloor, toFloor);
+            }
+        }
+
+        private int lastStopUp() {
+            int lastStop = 0;
+            for (int i = 0; i < elevatorStops.length; i++) {
+                if (elevatorStops[i] > 0) {
+                    lastStop = i;
+                }
+            }
+            return lastStop;
+        }
+
+        private int lastStopDown() {
+            int lastStop = elevatorStops.length - 1;
+            for (int i = lastStop; i >= 0; i--) {
+                if (elevatorStops[i] > 0) {
+                    lastStop = i;
+                }
+            }
+            return lastStop;
+        }
+
+        private long calculateTimeGoingUp(int fromFloor, int toFloor) {
+            int[] stops = Arrays.copyOf(elevatorStops, elevatorStops.length);
+            int lastStopUp = Math.max(toFloor, lastStopUpStartingFrom(fromFloor, stops));
+            long totalTime = (stops[toFloor] == 0) ? WAITING_TIME_PER_STOP_MS : 0;
+            totalTime += totalTimeUp(fromFloor, lastStopUp, stops);
+            if (toFloor > fromFloor) {
+                return totalTime;
+            }
+            int lastStopDown = Math.min(toFloor, lastStopDownStartingFrom(lastStopUp, stops));
+            return totalTime + totalTimeDown(lastStopUp, lastStopDown, stops);
+        }
+
+        private long calculateTimeGoingDown(int fromFloor, int toFloor) {
+            int[] stops = Arrays.copyOf(elevatorStops, elevatorStops.length);
+            int lastStopDown = Math.min(toFloor, lastStopDownStartingFrom(fromFloor, stops));
+            long totalTime = (stops[toFloor] == 0) ? WAITING_TIME_PER_STOP_MS : 0;
+            totalTime += totalTimeDown(fromFloor, lastStopDown, stops);
+            if (toFloor < fromFloor) {
+                return totalTime;
+            }
+            int lastStopUp = Math.max(toFloor, lastStopUpStartingFrom(lastStopDown, stops));
+            return totalTime + totalTimeUp(lastStopDown, lastStopUp, stops);
+        }
+
+        private long totalTimeUp(int from, int to, int[] stops) {
+            long totalTime = 0;
+            for (int i = from; i <= to; i++) {
+                totalTime += visit(i, stops);
+            }
+            return totalTime;
+        }
+
+        private long totalTimeDown(int from, int to, int[] stops) {
+            long totalTime = 0;
+            for (int i = from; i >= to; i--) {
+                totalTime += visit(i, stops);
+            }
+            return totalTime;
+        }
+
+        private long visit(int floor, int[] stops) {
+            long time = SPEED_BETWEEN_FLOORS_MS;
+            if (stops[floor] > 0) {
+                time += WAITING_TIME_PER_STOP_MS;
+                stops[floor]--;
+            }
+            return time;
+        }
+
+        private int lastStopUpStartingFrom(int startingFrom, int[] stops) {
+            int lastStop = startingFrom;
+            for (int i = startingFrom + 1; i < stops.length; i++) {
+                if (stops[i] > 0) {
+                    lastStop = i;
+                }
+            }
+            return lastStop;
+        }
+
+        private int lastStopDownStartingFrom(int startingFrom, int[] stops) {
+            int lastStop = startingFrom;
+            for (int i = startingFrom - 1; i >= 0; i--) {
+                if (stops[i] > 0) {
+                    lastStop = i;
+                }
+            }
+            return lastStop;
+        }
+    }
+}
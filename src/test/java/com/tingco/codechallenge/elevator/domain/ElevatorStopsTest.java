@@ -0,0 +1,147 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the stop tree with a plain scan of the pending requests
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorStopsTest {
+
+    private static final int NR_OF_FLOORS = 1000;
+
+    @Test
+    public void findsStopsAcrossWords() {
+        ElevatorStops stops = new ElevatorStops(NR_OF_FLOORS);
+        Assert.assertTrue(stops.isEmpty());
+        Assert.assertEquals(-1, stops.firstStop());
+        Assert.assertEquals(-1, stops.lastStop());
+
+        stops = stops.increment(3);
+        stops = stops.increment(700);
+        stops = stops.increment(700);
+
+        Assert.assertEquals(3, stops.firstStop());
+        Assert.assertEquals(700, stops.lastStop());
+        Assert.assertEquals(700, stops.nextStopFrom(4));
+        Assert.assertEquals(3, stops.previousStopFrom(699));
+        Assert.assertEquals(-1, stops.nextStopFrom(701));
+        Assert.assertEquals(-1, stops.previousStopFrom(2));
+
+        stops = stops.decrement(700);
+        Assert.assertEquals(700, stops.lastStop());
+        stops = stops.decrement(700);
+        Assert.assertEquals(3, stops.lastStop());
+    }
+
+    @Test
+    public void matchesScanOfRequests() {
+        Random random = new Random(42);
+        ElevatorStops stops = new ElevatorStops(NR_OF_FLOORS);
+        int[] counts = new int[NR_OF_FLOORS];
+
+        for (int i = 0; i < 20_000; i++) {
+            int floor = random.nextInt(NR_OF_FLOORS);
+            if (random.nextInt(3) == 0) {
+                stops = stops.decrement(floor);
+                counts[floor]--;
+            } else {
+                stops = stops.increment(floor);
+                counts[floor]++;
+            }
+
+            int from = random.nextInt(NR_OF_FLOORS);
+            Assert.assertEquals(scanUp(counts, from), stops.nextStopFrom(from));
+            Assert.assertEquals(scanDown(counts, from), stops.previousStopFrom(from));
+            Assert.assertEquals(counts[floor], stops.get(floor));
+            Assert.assertEquals(Arrays.stream(counts).sum(), stops.countRequests());
+            Assert.assertEquals(scanCount(counts, from, NR_OF_FLOORS - 1, 1), stops.countStops(from, NR_OF_FLOORS - 1));
+            Assert.assertEquals(scanCount(counts, 0, from, 2), stops.countMultipleStops(0, from));
+        }
+    }
+
+    @Test
+    public void matchesScanOfDestinations() {
+        Random random = new Random(7);
+        ElevatorStops stops = new ElevatorStops(NR_OF_FLOORS);
+        int[] requests = new int[NR_OF_FLOORS];
+        int[] destinations = new int[NR_OF_FLOORS];
+
+        for (int i = 0; i < 20_000; i++) {
+            int floor = random.nextInt(NR_OF_FLOORS);
+            if (random.nextBoolean()) {
+                stops = stops.increment(floor);
+                requests[floor]++;
+            } else if (destinations[floor] > 0) {
+                stops = stops.decrement(floor).removeDestination(floor);
+                requests[floor]--;
+                destinations[floor]--;
+            } else {
+                stops = stops.increment(floor).addDestination(floor);
+                requests[floor]++;
+                destinations[floor]++;
+            }
+
+            int from = random.nextInt(NR_OF_FLOORS);
+            int to = from + random.nextInt(NR_OF_FLOORS - from);
+            int loadChange = 0;
+            for (int j = from; j <= to; j++) {
+                loadChange += Math.max(0, requests[j] - destinations[j]) - destinations[j];
+            }
+            Assert.assertEquals(loadChange, stops.loadChange(from, to));
+            Assert.assertEquals(scanUp(destinations, from), stops.nextDestinationFrom(from));
+            Assert.assertEquals(scanDown(destinations, from), stops.previousDestinationFrom(from));
+        }
+    }
+
+    @Test
+    public void changesLeaveEarlierStopsUntouched() {
+        ElevatorStops empty = new ElevatorStops(NR_OF_FLOORS);
+        ElevatorStops one = empty.increment(500);
+        ElevatorStops two = one.increment(20).addDestination(20);
+        ElevatorStops served = two.decrement(500);
+
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertEquals(500, one.firstStop());
+        Assert.assertEquals(0, one.getDestinations(20));
+        Assert.assertEquals(20, two.firstStop());
+        Assert.assertEquals(1, two.getDestinations(20));
+        Assert.assertEquals(2, two.countStops(0, NR_OF_FLOORS - 1));
+        Assert.assertEquals(20, served.lastStop());
+        Assert.assertEquals(1, served.getDestinations(20));
+    }
+
+    private static int scanCount(int[] counts, int from, int to, int atLeast) {
+        int count = 0;
+        for (int i = from; i <= to; i++) {
+            if (counts[i] >= atLeast) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int scanUp(int[] counts, int from) {
+        for (int i = from; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int scanDown(int[] counts, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Travels the ring of floors of a passenger
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ItineraryTest {
+
+    @Test
+    public void keepsFloorsInOrderAcrossTheEndOfTheRing() {
+        Itinerary itinerary = new Itinerary(2);
+        itinerary.add(0);
+        itinerary.add(4);
+        itinerary.poll();
+        itinerary.add(8);
+        itinerary.add(2);
+
+        Assert.assertEquals(3, itinerary.size());
+        Assert.assertEquals(4, itinerary.peek(0));
+        Assert.assertEquals(8, itinerary.peek(1));
+        Assert.assertEquals(2, itinerary.peek(2));
+        Assert.assertEquals(Itinerary.NO_FLOOR, itinerary.peek(3));
+
+        itinerary.poll();
+        itinerary.poll();
+        itinerary.poll();
+        itinerary.poll();
+        Assert.assertEquals(0, itinerary.size());
+        Assert.assertEquals(Itinerary.NO_FLOOR, itinerary.peek(0));
+    }
+}
@@ -0,0 +1,50 @@
+package com.tingco.codechallenge.elevator.domain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Starts and ends the rides of the passengers in an elevator
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class RidesTest {
+
+    @Test
+    public void endsRidesOnTheFloorTheyGoTo() {
+        Rides rides = new Rides(10);
+        rides.enter(0, 5, 100);
+        rides.enter(2, 7, 200);
+        rides.enter(3, 5, 300);
+
+        Assert.assertEquals(Rides.NO_RIDE, rides.leave(4));
+        int first = rides.leave(5);
+        int second = rides.leave(5);
+        Assert.assertEquals(400, rides.getEnteredMs(first) + rides.getEnteredMs(second));
+        Assert.assertEquals(3, rides.getFromFloor(first) + rides.getFromFloor(second));
+        Assert.assertEquals(Rides.NO_RIDE, rides.leave(5));
+
+        int ride = rides.leave(7);
+        Assert.assertEquals(2, rides.getFromFloor(ride));
+        Assert.assertEquals(200, rides.getEnteredMs(ride));
+    }
+
+    @Test
+    public void reusesTheSlotsOfEndedRides() {
+        Rides rides = new Rides(10);
+        for (int i = 0; i < 1000; i++) {
+            rides.enter(i % 10, (i + 1) % 10, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertNotEquals(Rides.NO_RIDE, rides.leave((i + 1) % 10));
+        }
+
+        rides.enter(1, 9, 5000);
+        Assert.assertTrue(rides.leave(9) < 1000);
+
+        rides.enter(1, 9, 6000);
+        rides.clear();
+        Assert.assertEquals(Rides.NO_RIDE, rides.leave(9));
+    }
+}
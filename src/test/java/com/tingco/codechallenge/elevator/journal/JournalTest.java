@@ -0,0 +1,158 @@
+package com.tingco.codechallenge.elevator.journal;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Journals the changes of elevators and rebuilds them by replaying the journal
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class JournalTest {
+
+    private static final int NR_OF_FLOORS = 10;
+    private static final int SEGMENT_SIZE = 3 * MappedJournal.RECORD_SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rollsSegmentsAndReplaysElevatorState() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 10);
+        ElevatorImpl elevator = newElevator(1, journal);
+
+        elevator.moveElevator(5);
+        elevator.moveElevator(7);
+        while (elevator.moveToNextFloor() != 5) {
+        }
+        elevator.enter(2);
+        elevator.serveStop();
+        journal.close();
+
+        Assert.assertTrue(MappedJournal.segmentFiles(directory).size() > 1);
+        ElevatorSnapshot expected = elevator.getSnapshot();
+        ElevatorSnapshot replayed = replay(directory, 1);
+        Assert.assertEquals(expected.getStateVersion(), replayed.getStateVersion());
+        Assert.assertEquals(expected.getCurrentFloor(), replayed.getCurrentFloor());
+        Assert.assertEquals(expected.getDirection(), replayed.getDirection());
+        Assert.assertEquals(expected.getNrOfPassengers(), replayed.getNrOfPassengers());
+        Assert.assertEquals(expected.getAddressedFloor(), replayed.getAddressedFloor());
+        Assert.assertEquals(0, replayed.countRequests(5));
+        Assert.assertEquals(1, replayed.countRequests(2));
+        Assert.assertEquals(1, replayed.countRequests(7));
+    }
+
+    @Test
+    public void continuesAfterTheSegmentsOfAPreviousRun() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        MappedJournal first = new MappedJournal(directory, SEGMENT_SIZE, 10);
+        newElevator(0, first).moveElevator(3);
+        first.close();
+
+        MappedJournal second = new MappedJournal(directory, SEGMENT_SIZE, 10);
+        ElevatorImpl elevator = newElevator(0, second);
+        elevator.moveElevator(3);
+        elevator.moveElevator(6);
+        second.close();
+
+        Assert.assertEquals(2, MappedJournal.segmentFiles(directory).size());
+        Map<Integer, RecoveredElevator> recovered = JournalReplay.replay(directory, NR_OF_FLOORS);
+        Assert.assertArrayEquals(new int[]{0, 0, 0, 2, 0, 0, 1, 0, 0, 0}, recovered.get(0).getRequests());
+    }
+
+    @Test
+    public void skipsRecordsThatWereNotWritten() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        ByteBuffer segment = ByteBuffer.allocate(4 * MappedJournal.RECORD_SIZE);
+        putRecord(segment, 0, RecordType.MOVE_ELEVATOR, 2, 1);
+        // The writer of the second slot claimed it but never wrote it
+        putRecord(segment, 2, RecordType.MOVE_ELEVATOR, 4, 3);
+        Files.write(directory.resolve(String.format("%s%012d%s", MappedJournal.SEGMENT_PREFIX, 0, MappedJournal.SEGMENT_SUFFIX)),
+                segment.array());
+
+        RecoveredElevator recovered = JournalReplay.replay(directory, NR_OF_FLOORS).get(0);
+
+        Assert.assertArrayEquals(new int[]{0, 0, 1, 0, 1, 0, 0, 0, 0, 0}, recovered.getRequests());
+        Assert.assertEquals(3, recovered.getStateVersion());
+    }
+
+    @Test
+    public void restoredElevatorServesNewCalls() {
+        ElevatorImpl elevator = newElevator(0, Journal.NONE);
+        int[] requests = new int[NR_OF_FLOORS];
+        requests[3] = 1;
+        elevator.restore(0, Elevator.Direction.NONE, 0, requests, 5);
+
+        for (int i = 0; i < 2 * NR_OF_FLOORS; i++) {
+            elevator.moveToNextFloor();
+        }
+        Assert.assertEquals(3, elevator.currentFloor());
+        Assert.assertEquals(0, elevator.getSnapshot().countRequests(3));
+
+        elevator.moveElevator(7);
+        for (int i = 0; i < 2 * NR_OF_FLOORS; i++) {
+            elevator.moveToNextFloor();
+        }
+        Assert.assertEquals(7, elevator.currentFloor());
+    }
+
+    @Test
+    public void restoredPassengersLeaveAFullElevator() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 10);
+        ElevatorImpl elevator = newElevator(0, journal);
+        int[] requests = new int[NR_OF_FLOORS];
+        requests[3] = 1;
+        elevator.restore(0, Elevator.Direction.UP, 1, requests, 5);
+        elevator.setCapacity(1);
+        Assert.assertTrue(elevator.getSnapshot().isFull());
+
+        while (elevator.moveToNextFloor() != 3) {
+        }
+        Assert.assertEquals(0, elevator.getNrOfPassengers());
+        Assert.assertTrue(elevator.enter(8));
+        journal.close();
+
+        Map<Integer, RecoveredElevator> restored = new TreeMap<>();
+        restored.put(0, new RecoveredElevator(0, 5, 0, Elevator.Direction.UP, 1, requests.clone()));
+        RecoveredElevator recovered = JournalReplay.replay(directory, NR_OF_FLOORS, 0, restored).get(0);
+        Assert.assertEquals(1, recovered.getNrOfPassengers());
+        Assert.assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 1, 0}, recovered.getRequests());
+    }
+
+    private static void putRecord(ByteBuffer segment, int slot, RecordType type, int floor, long stateVersion) {
+        int index = slot * MappedJournal.RECORD_SIZE;
+        segment.putInt(index, type.code());
+        segment.putInt(index + 4, 0);
+        segment.putInt(index + 8, floor);
+        segment.putInt(index + 12, 0);
+        segment.putLong(index + 16, stateVersion);
+    }
+
+    private ElevatorImpl newElevator(int id, Journal journal) {
+        ElevatorImpl elevator = new ElevatorImpl(id, Elevator.Direction.NONE, 0, NR_OF_FLOORS, 10, 10);
+        elevator.setJournal(journal);
+        return elevator;
+    }
+
+    private ElevatorSnapshot replay(Path directory, int id) {
+        RecoveredElevator state = JournalReplay.replay(directory, NR_OF_FLOORS).get(id);
+        ElevatorImpl elevator = newElevator(id, Journal.NONE);
+        elevator.restore(state.getCurrentFloor(), state.getDirection(), state.getNrOfPassengers(), state.getRequests(),
+                state.getStateVersion());
+        return elevator.getSnapshot();
+    }
+}
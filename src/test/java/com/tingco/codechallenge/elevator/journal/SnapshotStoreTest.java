@@ -0,0 +1,137 @@
+package com.tingco.codechallenge.elevator.journal;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import com.tingco.codechallenge.elevator.simulation.SimulationEngine;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restores elevators from the latest snapshot and the journal written after it
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class SnapshotStoreTest {
+
+    private static final int NR_OF_FLOORS = 10;
+    private static final int SEGMENT_SIZE = 4 * MappedJournal.RECORD_SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void restoresSnapshotAndJournalTail() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SnapshotStore store = new SnapshotStore(directory, NR_OF_FLOORS);
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 10);
+        List<ElevatorImpl> elevators = Arrays.asList(newElevator(0, journal), newElevator(1, journal));
+
+        elevators.get(0).moveElevator(4);
+        elevators.get(1).moveElevator(9);
+        while (elevators.get(0).moveToNextFloor() != 4) {
+        }
+        elevators.get(0).enter(1);
+        elevators.get(1).moveElevator(2);
+        store.write(elevators, journal);
+        long segment = journal.currentSegment();
+        for (Path file : MappedJournal.segmentFiles(directory)) {
+            Assert.assertTrue(MappedJournal.segmentNumber(file) >= segment);
+        }
+
+        elevators.get(1).moveToNextFloor();
+        elevators.get(1).moveToNextFloor();
+        elevators.get(1).enter(7);
+        elevators.get(0).moveElevator(8);
+        journal.close();
+
+        Map<Integer, RecoveredElevator> recovered = store.recover();
+        for (ElevatorImpl elevator : elevators) {
+            RecoveredElevator state = recovered.get(elevator.getId());
+            ElevatorImpl restored = newElevator(elevator.getId(), Journal.NONE);
+            restored.restore(state.getCurrentFloor(), state.getDirection(), state.getNrOfPassengers(), state.getRequests(),
+                    state.getStateVersion());
+            assertSameState(elevator.getSnapshot(), restored.getSnapshot());
+        }
+    }
+
+    @Test
+    public void restoredElevatorsServeNewCalls() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SnapshotStore store = new SnapshotStore(directory, NR_OF_FLOORS);
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, 10);
+        List<ElevatorImpl> elevators = Arrays.asList(newElevator(0, journal), newElevator(1, journal));
+        elevators.get(0).moveElevator(3);
+        while (elevators.get(0).moveToNextFloor() != 3) {
+        }
+        elevators.get(0).enter(6);
+        elevators.get(1).moveElevator(5);
+        store.write(elevators, journal);
+        journal.close();
+
+        Map<Integer, RecoveredElevator> recovered = store.recover();
+        List<Elevator> restored = new ArrayList<>();
+        for (ElevatorImpl elevator : elevators) {
+            RecoveredElevator state = recovered.get(elevator.getId());
+            ElevatorImpl restoredElevator = newElevator(elevator.getId(), Journal.NONE);
+            restoredElevator.restore(state.getCurrentFloor(), state.getDirection(), state.getNrOfPassengers(),
+                    state.getRequests(), state.getStateVersion());
+            restoredElevator.setCapacity(1);
+            restored.add(restoredElevator);
+        }
+        Assert.assertTrue(restored.get(0).getSnapshot().isFull());
+        SimulationEngine engine = new SimulationEngine();
+        ElevatorControllerImpl controller = new ElevatorControllerImpl(engine, restored);
+        engine.runFor(1_000);
+        Elevator called = controller.requestElevator(9, Elevator.Direction.DOWN);
+        called.addElevatorListener(9, event -> {
+            event.getElevator().serveStop();
+            return true;
+        });
+        engine.runFor(1_000);
+
+        Assert.assertEquals(9, called.currentFloor());
+        for (Elevator elevator : restored) {
+            Assert.assertEquals(0, elevator.getNrOfPassengers());
+            Assert.assertTrue(elevator.getSnapshot().isIdle());
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void rejectsUnknownFormatVersion() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(directory.resolve("snapshot-000000000000.snap")))) {
+            out.writeInt(SnapshotStore.MAGIC);
+            out.writeShort(SnapshotStore.FORMAT_VERSION + 1);
+        }
+        new SnapshotStore(directory, NR_OF_FLOORS).recover();
+    }
+
+    private static void assertSameState(ElevatorSnapshot expected, ElevatorSnapshot actual) {
+        Assert.assertEquals(expected.getStateVersion(), actual.getStateVersion());
+        Assert.assertEquals(expected.getCurrentFloor(), actual.getCurrentFloor());
+        Assert.assertEquals(expected.getNrOfPassengers(), actual.getNrOfPassengers());
+        for (int floor = 0; floor < NR_OF_FLOORS; floor++) {
+            Assert.assertEquals(expected.countRequests(floor), actual.countRequests(floor));
+        }
+    }
+
+    private ElevatorImpl newElevator(int id, Journal journal) {
+        ElevatorImpl elevator = new ElevatorImpl(id, Elevator.Direction.NONE, 0, NR_OF_FLOORS, 10, 10);
+        elevator.setJournal(journal);
+        return elevator;
+    }
+}
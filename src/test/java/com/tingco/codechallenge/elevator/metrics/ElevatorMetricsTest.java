@@ -0,0 +1,85 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import com.tingco.codechallenge.elevator.simulation.SimulationEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Records latencies into histograms and reads back their percentiles
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorMetricsTest {
+
+    private static final long SPEED_BETWEEN_FLOORS_MS = 3000;
+    private static final long WAITING_TIME_PER_STOP_MS = 5000;
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        Random random = new Random(5);
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long value = (long) Math.exp(random.nextDouble() * 20);
+            values.add(value);
+            histogram.record(value);
+        }
+        Collections.sort(values);
+
+        LatencySummary summary = LatencySummary.of(Collections.singletonList(histogram));
+
+        Assert.assertEquals(values.size(), summary.getCount());
+        Assert.assertEquals(values.get(values.size() - 1).longValue(), summary.getMax());
+        assertWithinPrecision(values.get(4999), summary.getP50());
+        assertWithinPrecision(values.get(8999), summary.getP90());
+        assertWithinPrecision(values.get(9899), summary.getP99());
+    }
+
+    @Test
+    public void bucketsCoverEveryValueOnce() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.index(value);
+            Assert.assertTrue(LatencyHistogram.highestValue(index) >= value);
+            Assert.assertTrue(index == 0 || LatencyHistogram.highestValue(index - 1) < value);
+        }
+        Assert.assertEquals(LatencyHistogram.NR_OF_BUCKETS - 1, LatencyHistogram.index(LatencyHistogram.MAX_VALUE));
+    }
+
+    @Test
+    public void recordsWaitAndTravelTimeOfATrip() {
+        SimulationEngine engine = new SimulationEngine();
+        ElevatorMetrics metrics = new ElevatorMetrics(1, 10);
+        ElevatorImpl elevator = new ElevatorImpl(0, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS);
+        elevator.setMetrics(metrics, engine.getClock());
+        ElevatorControllerImpl controller = new ElevatorControllerImpl(engine, Collections.singletonList(elevator));
+        controller.setMetrics(metrics, engine.getClock());
+
+        Passenger passenger = new Passenger(1);
+        passenger.addStop(3);
+        passenger.addStop(7);
+        passenger.assignElevator(controller.requestElevator(3, Elevator.Direction.UP));
+        engine.runFor(10 * 60_000);
+
+        LatencySummary waitTimes = metrics.waitTimes(0, 3, Elevator.Direction.UP);
+        Assert.assertEquals(1, waitTimes.getCount());
+        Assert.assertEquals(2 * SPEED_BETWEEN_FLOORS_MS, waitTimes.getMax());
+        Assert.assertEquals(2 * SPEED_BETWEEN_FLOORS_MS, waitTimes.getP99());
+        Assert.assertEquals(4 * SPEED_BETWEEN_FLOORS_MS + WAITING_TIME_PER_STOP_MS, metrics.travelTimes(null, null, null).getP50());
+        Assert.assertEquals(0, metrics.travelTimes(null, 3, Elevator.Direction.DOWN).getCount());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        Assert.assertTrue(String.format("expected=%d actual=%d", expected, actual),
+                actual >= expected && actual <= expected + expected / 32 + 1);
+    }
+}
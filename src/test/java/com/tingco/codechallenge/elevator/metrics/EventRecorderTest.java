@@ -0,0 +1,126 @@
+package com.tingco.codechallenge.elevator.metrics;
+
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Records events in a ring buffer and writes them on the background thread
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class EventRecorderTest {
+
+    private final Logger elevatorLogger = Logger.getLogger(ElevatorImpl.class.getName());
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private volatile CountDownLatch blocked = new CountDownLatch(0);
+    private Handler handler;
+    private Level level;
+    private EventRecorder recorder;
+
+    @Before
+    public void setUp() {
+        level = elevatorLogger.getLevel();
+        elevatorLogger.setLevel(Level.INFO);
+        elevatorLogger.setUseParentHandlers(false);
+        handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                writing.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        elevatorLogger.addHandler(handler);
+    }
+
+    @After
+    public void tearDown() {
+        recorder.shutdown();
+        elevatorLogger.removeHandler(handler);
+        elevatorLogger.setUseParentHandlers(true);
+        elevatorLogger.setLevel(level);
+    }
+
+    @Test
+    public void writesEventsInOrder() throws InterruptedException {
+        recorder = new EventRecorder(8);
+        for (int floor = 0; floor < 20; floor++) {
+            recorder.record(EventType.ELEVATOR_MOVED, 1, floor, 0, 2);
+            Assert.assertTrue(recorder.flush(5, TimeUnit.SECONDS));
+        }
+
+        Assert.assertEquals(20, written.size());
+        Assert.assertEquals("Elevator=1, is on floor=19 with direction=UP and nr of passengers=2", written.get(19));
+    }
+
+    @Test
+    public void wakesIdleWriterOnEvent() throws InterruptedException {
+        recorder = new EventRecorder(8);
+        recorder.record(EventType.ELEVATOR_MOVED, 1, 0, 0, 0);
+        Assert.assertTrue(recorder.flush(5, TimeUnit.SECONDS));
+
+        // The writer sleeps without a timeout once the buffer is empty, the next event has to wake it
+        Thread.sleep(50);
+        recorder.record(EventType.ELEVATOR_MOVED, 1, 1, 0, 0);
+
+        Assert.assertTrue(recorder.flush(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, written.size());
+    }
+
+    @Test
+    public void dropsEventsWhenFull() throws InterruptedException {
+        blocked = new CountDownLatch(1);
+        recorder = new EventRecorder(4);
+        recorder.record(EventType.ELEVATOR_MOVED, 1, 0, 0, 0);
+        writing.await(5, TimeUnit.SECONDS);
+
+        for (int floor = 1; floor < 6; floor++) {
+            recorder.record(EventType.ELEVATOR_MOVED, 1, floor, 0, 0);
+        }
+        blocked.countDown();
+
+        Assert.assertTrue(recorder.flush(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, recorder.getDropped());
+        Assert.assertEquals(4, written.size());
+    }
+
+    @Test
+    public void skipsEventsOfDisabledLogger() throws InterruptedException {
+        elevatorLogger.setLevel(Level.WARNING);
+        recorder = new EventRecorder(4);
+        for (int floor = 0; floor < 10; floor++) {
+            recorder.record(EventType.ELEVATOR_MOVED, 1, floor, 0, 0);
+        }
+
+        Assert.assertTrue(recorder.flush(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, recorder.getDropped());
+        Assert.assertTrue(written.isEmpty());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -22,6 +23,9 @@ public class ElevatorControllerEndPointsTest {
     @Autowired
     private ElevatorControllerEndPoints endPoints;
 
+    @Value("${com.tingco.elevator.numberofelevators}")
+    private int numberOfElevators;
+
     @Test
     public void ping() {
 
@@ -29,4 +33,11 @@ public class ElevatorControllerEndPointsTest {
 
     }
 
+    @Test
+    public void elevators() {
+
+        Assert.assertEquals(numberOfElevators, endPoints.elevators().size());
+
+    }
+
 }
@@ -0,0 +1,81 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.simulation.VirtualClock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks idle elevators on the floors with the most expected calls
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DemandParkingPolicyTest {
+
+    private static final int NR_OF_FLOORS = 10;
+    private static final long SLOT_MS = TimeUnit.MINUTES.toMillis(15);
+
+    private final VirtualClock clock = new VirtualClock();
+    private final DemandModel demand = new DemandModel(NR_OF_FLOORS, SLOT_MS);
+    private final List<Elevator> elevators = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        DemandParkingPolicy policy = new DemandParkingPolicy(demand, elevators, clock);
+        for (int i = 0; i < 2; i++) {
+            ElevatorImpl elevator = new ElevatorImpl(i, Elevator.Direction.NONE, 5, NR_OF_FLOORS, 3000, 5000);
+            elevator.setParkingPolicy(policy);
+            elevators.add(elevator);
+        }
+    }
+
+    @Test
+    public void learnsDemandByTimeOfDay() {
+        demand.record(0, 0, Elevator.Direction.UP);
+        demand.record(SLOT_MS - 1, 0, Elevator.Direction.UP);
+        demand.record(TimeUnit.DAYS.toMillis(1) + 1, 0, Elevator.Direction.UP);
+
+        Assert.assertEquals(3, demand.calls(0, 0, Elevator.Direction.UP));
+        Assert.assertEquals(0, demand.calls(0, 0, Elevator.Direction.DOWN));
+        Assert.assertEquals(0, demand.calls(2 * SLOT_MS, 0, Elevator.Direction.UP));
+        Assert.assertEquals(3, demand.expectedCalls(-SLOT_MS, 0));
+    }
+
+    @Test
+    public void movesIdleElevatorsAheadOfCalls() {
+        for (int i = 0; i < 10; i++) {
+            demand.record(0, 0, Elevator.Direction.UP);
+        }
+        for (int i = 0; i < 3; i++) {
+            demand.record(0, 8, Elevator.Direction.DOWN);
+        }
+        Elevator first = elevators.get(0);
+        Elevator second = elevators.get(1);
+
+        Assert.assertFalse(first.park(() -> {}));
+        Assert.assertEquals(0, first.getAddressedFloor());
+        while (first.moveToNextFloor() != 0) {
+        }
+        Assert.assertTrue(first.park(() -> {}));
+
+        // Ten calls shared by two elevators are still worth more than three
+        Assert.assertFalse(second.park(() -> {}));
+        Assert.assertEquals(0, second.getAddressedFloor());
+
+        second.moveElevator(7);
+        Assert.assertEquals(7, second.getAddressedFloor());
+    }
+
+    @Test
+    public void staysWithoutDemand() {
+        Assert.assertTrue(elevators.get(0).park(() -> {}));
+        Assert.assertEquals(5, elevators.get(0).getAddressedFloor());
+    }
+}
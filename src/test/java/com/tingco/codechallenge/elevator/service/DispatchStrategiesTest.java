@@ -0,0 +1,83 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranks elevators with the configurable dispatch strategies
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DispatchStrategiesTest {
+
+    private static final int NR_OF_FLOORS = 12;
+
+    @Test
+    public void createsStrategiesByName() {
+        for (String name : DispatchStrategies.names()) {
+            Assert.assertNotNull(DispatchStrategies.create(name, 3, NR_OF_FLOORS));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownStrategy() {
+        DispatchStrategies.create("random", 3, NR_OF_FLOORS);
+    }
+
+    @Test
+    public void nearestCarIgnoresStops() {
+        List<Elevator> elevators = newElevators(2);
+        Elevator goingUp = elevators.get(0);
+        goingUp.moveElevator(11);
+        goingUp.moveToNextFloor();
+        goingUp.moveToNextFloor();
+
+        ElevatorControllerImpl controller = newController(elevators);
+        controller.setDispatchStrategy(new NearestCarStrategy());
+        Assert.assertEquals(goingUp, controller.requestElevator(3, Elevator.Direction.DOWN));
+
+        controller.setDispatchStrategy(new EtaGreedyStrategy());
+        Assert.assertEquals(elevators.get(1), controller.requestElevator(3, Elevator.Direction.DOWN));
+    }
+
+    @Test
+    public void zoningKeepsElevatorsInTheirZones() {
+        ZoningStrategy zoning = new ZoningStrategy(3, NR_OF_FLOORS);
+        Assert.assertEquals(0, zoning.zone(3));
+        Assert.assertEquals(1, zoning.zone(4));
+        Assert.assertEquals(2, zoning.zone(11));
+
+        List<Elevator> elevators = newElevators(3);
+        ElevatorControllerImpl controller = newController(elevators);
+        controller.setDispatchStrategy(zoning);
+        Assert.assertEquals(elevators.get(2), controller.requestElevator(10, Elevator.Direction.DOWN));
+        Assert.assertEquals(elevators.get(1), controller.requestElevator(5, Elevator.Direction.DOWN));
+    }
+
+    private static List<Elevator> newElevators(int nrOfElevators) {
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < nrOfElevators; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, NR_OF_FLOORS, 3000, 5000));
+        }
+        return elevators;
+    }
+
+    private static ElevatorControllerImpl newController(List<Elevator> elevators) {
+        return new ElevatorControllerImpl(new ElevatorDriver() {
+            @Override
+            public void drive(Elevator elevator) {
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, elevators);
+    }
+}
@@ -0,0 +1,166 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorDriver;
+import com.tingco.codechallenge.elevator.api.HallCall;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatches hall calls from many threads at once
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorControllerImplTest {
+
+    private static final int NR_OF_FLOORS = 50;
+    private static final int NR_OF_ELEVATORS = 4;
+
+    private ElevatorControllerImpl controller;
+    private final List<Elevator> driven = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < NR_OF_ELEVATORS; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, NR_OF_FLOORS, 3000, 5000));
+        }
+        controller = new ElevatorControllerImpl(new ElevatorDriver() {
+            @Override
+            public synchronized void drive(Elevator elevator) {
+                driven.add(elevator);
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, elevators);
+    }
+
+    @Test
+    public void choosesElevatorWithShortestTime() {
+        Elevator first = controller.requestElevator(20, Elevator.Direction.UP);
+        Elevator second = controller.requestElevator(0, Elevator.Direction.UP);
+
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(2, driven.size());
+    }
+
+    @Test
+    public void assignsBatchOfCallsTogether() {
+        List<HallCall> calls = Arrays.asList(new HallCall(0, Elevator.Direction.UP), new HallCall(40, Elevator.Direction.DOWN),
+                new HallCall(20, Elevator.Direction.UP), new HallCall(1, Elevator.Direction.UP));
+
+        List<Elevator> assigned = controller.requestElevators(calls);
+
+        Assert.assertEquals(calls.size(), assigned.size());
+        Assert.assertEquals(NR_OF_ELEVATORS, new HashSet<>(assigned).size());
+        for (int i = 0; i < calls.size(); i++) {
+            Assert.assertEquals(1, assigned.get(i).getSnapshot().countRequests(calls.get(i).getFloor()));
+        }
+        Assert.assertEquals(NR_OF_ELEVATORS, driven.size());
+    }
+
+    @Test
+    public void avoidsFullElevators() {
+        ElevatorImpl full = (ElevatorImpl) controller.getElevators().get(0);
+        full.setCapacity(1);
+        full.moveElevator(0);
+        full.enter(30);
+
+        Elevator elevator = controller.requestElevator(0, Elevator.Direction.UP);
+
+        Assert.assertNotEquals(full, elevator);
+        Assert.assertEquals(0, elevator.getSnapshot().getCurrentFloor());
+    }
+
+    @Test
+    public void groupsPassengersByDestination() {
+        Elevator first = controller.requestDestination(0, 40);
+        Assert.assertEquals(first, controller.requestDestination(0, 40));
+        Assert.assertEquals(first, controller.requestDestination(0, 40));
+
+        Elevator other = controller.requestDestination(0, 3);
+
+        Assert.assertNotEquals(first, other);
+        Assert.assertEquals(3, first.getSnapshot().countRequests(0));
+        Assert.assertEquals(1, other.getSnapshot().countRequests(0));
+    }
+
+    @Test
+    public void dispatchesConcurrentRequests() throws Exception {
+        int nrOfThreads = 8;
+        int requestsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+        Map<Elevator, AtomicInteger> assigned = new ConcurrentHashMap<>();
+        AtomicInteger floor = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < nrOfThreads; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < requestsPerThread; j++) {
+                    int toFloor = floor.incrementAndGet() % NR_OF_FLOORS;
+                    Elevator elevator = controller.requestElevator(toFloor, (toFloor % 2 == 0) ? Elevator.Direction.UP : Elevator.Direction.DOWN);
+                    assigned.computeIfAbsent(elevator, e -> new AtomicInteger()).incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(nrOfThreads * requestsPerThread, assigned.values().stream().mapToInt(AtomicInteger::get).sum());
+        Assert.assertEquals(NR_OF_ELEVATORS, assigned.size());
+        Assert.assertEquals(NR_OF_ELEVATORS, driven.size());
+    }
+
+    @Test
+    public void dispatchesConcurrentBatches() throws Exception {
+        int nrOfThreads = 8;
+        int batchesPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+        AtomicInteger floor = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < nrOfThreads; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < batchesPerThread; j++) {
+                    List<HallCall> calls = new ArrayList<>();
+                    for (int k = 0; k < 3; k++) {
+                        calls.add(new HallCall(floor.incrementAndGet() % NR_OF_FLOORS, Elevator.Direction.UP));
+                    }
+                    List<Elevator> assigned = controller.requestElevators(calls);
+                    Assert.assertEquals(calls.size(), assigned.size());
+                    Assert.assertFalse(assigned.contains(null));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int requests = 0;
+        for (Elevator elevator : controller.getElevators()) {
+            for (int i = 0; i < NR_OF_FLOORS; i++) {
+                requests += elevator.getSnapshot().countRequests(i);
+            }
+        }
+        Assert.assertEquals(nrOfThreads * batchesPerThread * 3, requests);
+    }
+}
@@ -0,0 +1,172 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.jayway.awaitility.Awaitility;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes elevator states to slow and stalled subscribers
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ElevatorStateFeedTest {
+
+    private static final int NR_OF_FLOORS = 10;
+
+    private final List<Elevator> elevators = new ArrayList<>();
+    private ExecutorService sender;
+    private ElevatorStateFeed feed;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 2; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, NR_OF_FLOORS, 3000, 5000));
+        }
+        sender = Executors.newSingleThreadExecutor();
+        feed = new ElevatorStateFeed(elevators, sender);
+    }
+
+    @After
+    public void tearDown() {
+        sender.shutdownNow();
+    }
+
+    @Test
+    public void mergesStatesOfSlowSubscriber() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<ElevatorSnapshot> received = Collections.synchronizedList(new ArrayList<>());
+        feed.subscribe(snapshot -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(snapshot);
+        }, elevators);
+
+        Elevator elevator = elevators.get(0);
+        elevator.moveElevator(NR_OF_FLOORS - 1);
+        for (int i = 0; i < NR_OF_FLOORS; i++) {
+            elevator.moveToNextFloor();
+        }
+        blocked.countDown();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                received.stream().anyMatch(snapshot -> snapshot.getStateVersion() == elevator.getStateVersion()));
+        // The first state was being sent when the subscriber blocked, all the others were merged into the last one
+        Assert.assertTrue(received.size() <= 1 + elevators.size());
+        Assert.assertEquals(NR_OF_FLOORS - 1, received.stream()
+                .filter(snapshot -> snapshot.getId() == elevator.getId())
+                .reduce((first, last) -> last).get().getCurrentFloor());
+    }
+
+    @Test
+    public void cancelsSubscriberThatIsGone() {
+        feed.subscribe(snapshot -> {
+            throw new IOException("Gone");
+        }, elevators);
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> feed.size() == 0);
+        elevators.get(0).moveElevator(3);
+        Assert.assertEquals(0, feed.size());
+    }
+
+    @Test
+    public void evictsStalledSubscriber() throws InterruptedException {
+        ExecutorService threads = Executors.newCachedThreadPool();
+        ElevatorStateFeed stallingFeed = new ElevatorStateFeed(elevators, threads, threads, 100);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        stallingFeed.subscribe(snapshot -> {
+            try {
+                stalled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, elevators, evicted::countDown);
+        List<ElevatorSnapshot> received = Collections.synchronizedList(new ArrayList<>());
+        stallingFeed.subscribe(received::add, elevators);
+
+        Elevator elevator = elevators.get(0);
+        elevator.moveElevator(3);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                received.stream().anyMatch(snapshot -> snapshot.getStateVersion() == elevator.getStateVersion()));
+        Assert.assertEquals(2, stallingFeed.size());
+
+        Thread.sleep(200);
+        elevator.moveElevator(5);
+
+        Assert.assertTrue(evicted.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, stallingFeed.size());
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() ->
+                received.stream().anyMatch(snapshot -> snapshot.getStateVersion() == elevator.getStateVersion()));
+        stalled.countDown();
+        threads.shutdownNow();
+    }
+
+    @Test(timeout = 10_000)
+    public void closesEvictedSubscriberWithoutBlockingTheElevator() throws InterruptedException {
+        ExecutorService evictor = Executors.newSingleThreadExecutor();
+        ElevatorStateFeed stallingFeed = new ElevatorStateFeed(elevators, sender, evictor, 100);
+        Object connection = new Object();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        stallingFeed.subscribe(snapshot -> {
+            synchronized (connection) {
+                sending.countDown();
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, elevators, () -> {
+            synchronized (connection) {
+                closed.countDown();
+            }
+        });
+        Assert.assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(200);
+        Elevator elevator = elevators.get(0);
+        // The close handler waits for the blocked send, the elevator must not wait with it
+        elevator.moveElevator(3);
+        elevator.moveElevator(5);
+
+        Assert.assertEquals(0, stallingFeed.size());
+        Assert.assertEquals(1, closed.getCount());
+        stalled.countDown();
+        Assert.assertTrue(closed.await(5, TimeUnit.SECONDS));
+        evictor.shutdownNow();
+    }
+
+    @Test
+    public void evictsSubscriberRejectedBySender() throws InterruptedException {
+        CountDownLatch evicted = new CountDownLatch(1);
+        ElevatorStateFeed rejectingFeed = new ElevatorStateFeed(elevators, task -> {
+            throw new RejectedExecutionException("Busy");
+        }, Runnable::run, ElevatorStateFeed.DEFAULT_STALL_TIMEOUT_MS);
+
+        rejectingFeed.subscribe(snapshot -> {}, elevators, evicted::countDown);
+
+        Assert.assertTrue(evicted.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, rejectingFeed.size());
+    }
+}
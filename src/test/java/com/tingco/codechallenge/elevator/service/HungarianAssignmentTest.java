@@ -0,0 +1,62 @@
+package com.tingco.codechallenge.elevator.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Compares the Hungarian method with trying every assignment
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class HungarianAssignmentTest {
+
+    @Test
+    public void findsAssignmentGreedyMisses() {
+        long[][] cost = {{1, 2}, {1, 100}};
+
+        Assert.assertArrayEquals(new int[]{1, 0}, HungarianAssignment.solve(cost));
+    }
+
+    @Test
+    public void findsLowestTotalCost() {
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            int rows = 1 + random.nextInt(5);
+            int columns = rows + random.nextInt(3);
+            long[][] cost = new long[rows][columns];
+            for (long[] row : cost) {
+                for (int j = 0; j < columns; j++) {
+                    row[j] = random.nextInt(100);
+                }
+            }
+
+            int[] assignment = HungarianAssignment.solve(cost);
+            boolean[] used = new boolean[columns];
+            long total = 0;
+            for (int row = 0; row < rows; row++) {
+                Assert.assertFalse(used[assignment[row]]);
+                used[assignment[row]] = true;
+                total += cost[row][assignment[row]];
+            }
+            Assert.assertEquals(lowestCost(cost, 0, new boolean[columns]), total);
+        }
+    }
+
+    private static long lowestCost(long[][] cost, int row, boolean[] used) {
+        if (row == cost.length) {
+            return 0;
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                lowest = Math.min(lowest, cost[row][j] + lowestCost(cost, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return lowest;
+    }
+}
@@ -0,0 +1,59 @@
+package com.tingco.codechallenge.elevator.service;
+
+import com.jayway.awaitility.Awaitility;
+import com.tingco.codechallenge.elevator.QuietLoggers;
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many elevators on a couple of scheduler threads
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class ScheduledElevatorDriverTest {
+
+    private static final int NR_OF_ELEVATORS = 2000;
+    private static final int NR_OF_FLOORS = 5;
+
+    @Rule
+    public QuietLoggers quietLoggers = new QuietLoggers(ElevatorImpl.class);
+
+    private ScheduledElevatorDriver driver;
+    private List<Elevator> elevators = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        driver = new ScheduledElevatorDriver(Executors.newScheduledThreadPool(2));
+        for (int i = 0; i < NR_OF_ELEVATORS; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, NR_OF_FLOORS, 1, 1));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        elevators.forEach(Elevator::stop);
+        driver.shutdown();
+    }
+
+    @Test
+    public void movesAllElevatorsOnTwoThreads() {
+        for (Elevator elevator : elevators) {
+            elevator.moveElevator(NR_OF_FLOORS - 1);
+            elevator.start();
+            driver.drive(elevator);
+        }
+
+        Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() ->
+                elevators.stream().allMatch(elevator -> elevator.currentFloor() == NR_OF_FLOORS - 1));
+    }
+}
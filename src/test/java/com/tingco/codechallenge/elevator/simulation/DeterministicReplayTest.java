@@ -0,0 +1,64 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.QuietLoggers;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.service.NearestCarStrategy;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Replays recorded calls and compares the traces of the runs
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class DeterministicReplayTest {
+
+    private static final long DURATION_MS = 30 * 60_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public QuietLoggers quietLoggers = new QuietLoggers(ElevatorImpl.class, Passenger.class);
+
+    private LoadTest building;
+
+    @Before
+    public void setUp() {
+        building = new LoadTest(3, 12, 3000, 5000, TrafficPattern.LUNCH, DURATION_MS, 42);
+        building.setCapacity(8);
+    }
+
+    @Test
+    public void recordedCallsGiveTheSameTraceOnEveryRun() throws IOException {
+        CallStream calls = building.generateCalls(0.3);
+        Path file = folder.newFile("calls.csv").toPath();
+        calls.write(file);
+
+        List<String> first = new DeterministicReplay(building).replay(calls).getLines();
+        List<String> replayed = new DeterministicReplay(building).replay(CallStream.read(file)).getLines();
+
+        Assert.assertTrue(first.size() > calls.size());
+        Assert.assertEquals(-1, DispatchTrace.firstDifference(first, replayed));
+    }
+
+    @Test
+    public void changedDispatchingShowsInTheTrace() {
+        CallStream calls = building.generateCalls(0.3);
+        List<String> expected = new DeterministicReplay(building).replay(calls).getLines();
+
+        DispatchTrace changed = new DispatchTrace();
+        building.run(calls, new NearestCarStrategy(), changed);
+
+        Assert.assertNotEquals(-1, DispatchTrace.firstDifference(expected, changed.getLines()));
+    }
+}
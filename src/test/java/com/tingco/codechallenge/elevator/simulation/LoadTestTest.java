@@ -0,0 +1,95 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.QuietLoggers;
+import com.tingco.codechallenge.elevator.api.DispatchStrategy;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.service.DispatchStrategies;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Drives simulated buildings with generated traffic
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class LoadTestTest {
+
+    private static final long ONE_HOUR_MS = 60 * 60_000;
+
+    @Rule
+    public QuietLoggers quietLoggers = new QuietLoggers(ElevatorImpl.class, Passenger.class);
+
+    @Test
+    public void tripsFollowThePattern() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            int[] trip = TrafficPattern.INTER_FLOOR.nextTrip(random, 10);
+            Assert.assertNotEquals(trip[0], trip[1]);
+        }
+        int fromLobby = 0;
+        for (int i = 0; i < 1000; i++) {
+            fromLobby += (TrafficPattern.UP_PEAK.nextTrip(random, 10)[0] == 0) ? 1 : 0;
+        }
+        Assert.assertTrue(fromLobby > 850);
+    }
+
+    @Test
+    public void arrivalsComeAtTheOfferedRate() {
+        LoadTestResult result = new LoadTest(4, 20, 3000, 5000, TrafficPattern.LUNCH, ONE_HOUR_MS, 1).run(0.2);
+
+        Assert.assertEquals(0.2 * 3600, result.getCalls(), 0.2 * 3600 * 0.1);
+        Assert.assertFalse(result.isSaturated());
+        Assert.assertEquals(0.2, result.getServedCallsPerSecond(), 0.02);
+        Assert.assertTrue(result.getWaitTimes().getP50() > 0);
+        Assert.assertTrue(result.getRideTimes().getP50() > 0);
+    }
+
+    @Test
+    public void predictiveParkingShortensWaitsInPeaks() {
+        LoadTest loadTest = new LoadTest(3, 10, 3000, 5000, TrafficPattern.UP_PEAK, ONE_HOUR_MS, 1);
+        LoadTestResult standing = loadTest.run(0.1);
+        loadTest.setPredictiveParking(true);
+        LoadTestResult parked = loadTest.run(0.1);
+
+        Assert.assertTrue(parked.getWaitTimes().getP50() < standing.getWaitTimes().getP50());
+    }
+
+    @Test
+    public void comparesStrategiesOnTheSameCalls() {
+        LoadTest loadTest = new LoadTest(3, 10, 3000, 5000, TrafficPattern.LUNCH, ONE_HOUR_MS, 1);
+        CallStream calls = loadTest.generateCalls(0.2);
+        Map<String, DispatchStrategy> strategies = new LinkedHashMap<>();
+        for (String name : DispatchStrategies.names()) {
+            strategies.put(name, DispatchStrategies.create(name, 3, 10));
+        }
+
+        Map<String, LoadTestResult> results = new StrategyComparison(loadTest).compare(calls, strategies);
+
+        Assert.assertEquals(DispatchStrategies.names(), new ArrayList<>(results.keySet()));
+        for (LoadTestResult result : results.values()) {
+            Assert.assertEquals(calls.size(), result.getCalls());
+            Assert.assertTrue(result.getWaitTimes().getCount() > 0);
+        }
+        Assert.assertEquals(loadTest.run(0.2).getDelivered(), results.get(DispatchStrategies.ETA_GREEDY).getDelivered());
+    }
+
+    @Test
+    public void findsWhereTheBuildingSaturates() {
+        List<LoadTestResult> results = new LoadTest(2, 20, 3000, 5000, TrafficPattern.UP_PEAK, ONE_HOUR_MS, 1)
+                .findSaturation(0.05, 0.1, 0.2, 0.4, 0.8, 1.6, 3.2);
+
+        LoadTestResult saturated = results.get(results.size() - 1);
+        Assert.assertTrue(saturated.isSaturated());
+        Assert.assertTrue(saturated.getOfferedCallsPerSecond() < 3.2);
+        Assert.assertFalse(results.get(0).isSaturated());
+    }
+}
@@ -0,0 +1,62 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.QuietLoggers;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a small grid of configurations in parallel
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class MonteCarloRunnerTest {
+
+    private static final int RUNS = 4;
+
+    @Rule
+    public QuietLoggers quietLoggers = new QuietLoggers(ElevatorImpl.class, Passenger.class);
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void combinesIndependentRunsOfEveryConfiguration() {
+        MonteCarloRunner runner = new MonteCarloRunner(10, 8, TrafficPattern.UP_PEAK, 20 * 60_000, 0.1);
+        List<SimulationConfig> grid = SimulationConfig.grid(new int[]{1, 3}, new long[]{3000}, new long[]{5000});
+        StringWriter out = new StringWriter();
+
+        Map<SimulationConfig, RunStatistics> results = runner.run(grid, RUNS, 1, pool, out);
+
+        Assert.assertEquals(grid, Arrays.asList(results.keySet().toArray()));
+        for (RunStatistics statistics : results.values()) {
+            Assert.assertEquals(RUNS, statistics.getRuns());
+        }
+        Assert.assertEquals(grid.size() * RUNS, out.toString().split(System.lineSeparator()).length);
+        Assert.assertTrue(results.get(grid.get(1)).getMeanP90WaitMs() < results.get(grid.get(0)).getMeanP90WaitMs());
+
+        String line = String.format("%d,%d,%d,%d,%d,", 3, 3000, 5000, 2,
+                runner.runOnce(grid.get(1), 2).getCalls());
+        Assert.assertTrue(out.toString().contains(line));
+    }
+}
@@ -0,0 +1,101 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorListener;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.ElevatorSnapshot;
+import com.tingco.codechallenge.elevator.metrics.ElevatorMetrics;
+import com.tingco.codechallenge.elevator.resources.ElevatorControllerEndPoints;
+import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import com.tingco.codechallenge.elevator.service.ElevatorStateFeed;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.AsyncEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers the calls of the rest end points in simulated time
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class SimulatedEndPointsTest {
+
+    private SimulationEngine engine;
+    private ElevatorControllerEndPoints endPoints;
+    private final List<ElevatorListener> removedListeners = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        engine = new SimulationEngine();
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, 10, 3000, 5000) {
+                @Override
+                public void removeElevatorListener(ElevatorListener listener) {
+                    removedListeners.add(listener);
+                    super.removeElevatorListener(listener);
+                }
+            });
+        }
+        endPoints = new ElevatorControllerEndPoints(new ElevatorControllerImpl(engine, elevators),
+                new ElevatorStateFeed(elevators, Runnable::run), new ElevatorMetrics(2, 10), 60_000);
+    }
+
+    @Test
+    public void callsAreAnsweredOnArrival() {
+        Assert.assertEquals(5 * 3000 + 5000, endPoints.floorEta(4, Elevator.Direction.UP).getTimeMs());
+        DeferredResult<ElevatorSnapshot> hallCall = endPoints.hallCall(4, Elevator.Direction.UP);
+        engine.runFor(60_000);
+        Assert.assertEquals(4, ((ElevatorSnapshot) hallCall.getResult()).getCurrentFloor());
+
+        int id = ((ElevatorSnapshot) hallCall.getResult()).getId();
+        DeferredResult<ElevatorSnapshot> carCall = endPoints.carCall(id, 8);
+        engine.runFor(60_000);
+        ElevatorSnapshot arrived = (ElevatorSnapshot) carCall.getResult();
+        Assert.assertEquals(8, arrived.getCurrentFloor());
+        Assert.assertTrue(arrived.isIdle());
+        Assert.assertTrue(removedListeners.isEmpty());
+    }
+
+    @Test
+    public void abandonedCallRemovesItsListener() throws Exception {
+        DeferredResult<ElevatorSnapshot> hallCall = endPoints.hallCall(4, Elevator.Direction.UP);
+        timeOut(hallCall);
+        Assert.assertEquals(1, removedListeners.size());
+
+        engine.runFor(60_000);
+
+        Assert.assertFalse(hallCall.getResult() instanceof ElevatorSnapshot);
+        ElevatorSnapshot served = endPoints.elevators().stream()
+                .filter(snapshot -> snapshot.getCurrentFloor() == 4)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        Assert.assertEquals(0, served.countRequests(4));
+        Assert.assertTrue(served.isIdle());
+    }
+
+    /**
+     * Times out the result the way the servlet container does when the client is gone
+     */
+    private static void timeOut(DeferredResult<?> result) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        StandardServletAsyncWebRequest asyncRequest = new StandardServletAsyncWebRequest(request, response);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(asyncRequest);
+        asyncManager.startDeferredResultProcessing(result);
+        asyncRequest.onTimeout(new AsyncEvent(new MockAsyncContext(request, response)));
+    }
+}
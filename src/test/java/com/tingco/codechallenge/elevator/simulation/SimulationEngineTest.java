@@ -0,0 +1,139 @@
+package com.tingco.codechallenge.elevator.simulation;
+
+import com.tingco.codechallenge.elevator.api.Elevator;
+import com.tingco.codechallenge.elevator.api.ElevatorController;
+import com.tingco.codechallenge.elevator.domain.ElevatorImpl;
+import com.tingco.codechallenge.elevator.domain.Passenger;
+import com.tingco.codechallenge.elevator.domain.PassengerPool;
+import com.tingco.codechallenge.elevator.service.ElevatorControllerImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs elevators in simulated time
+ *
+ * @author Peter Björklund <mailto:peter.bjorklund@joors.com>
+ * @since 1.0.0
+ */
+public class SimulationEngineTest {
+
+    private static final long SPEED_BETWEEN_FLOORS_MS = 3000;
+    private static final long WAITING_TIME_PER_STOP_MS = 5000;
+
+    private SimulationEngine engine;
+    private ElevatorController controller;
+
+    @Before
+    public void setUp() {
+        engine = new SimulationEngine();
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            elevators.add(new ElevatorImpl(i, Elevator.Direction.NONE, 0, 10, SPEED_BETWEEN_FLOORS_MS, WAITING_TIME_PER_STOP_MS));
+        }
+        controller = new ElevatorControllerImpl(engine, elevators);
+    }
+
+    @Test
+    public void elevatorArrivesInSimulatedTime() {
+        Elevator elevator = controller.requestElevator(5, Elevator.Direction.UP);
+        long[] arrivalTime = {-1};
+        elevator.addElevatorListener(event -> {
+            if (event.getFloor() == 5) {
+                arrivalTime[0] = engine.getClock().now();
+                return true;
+            }
+            return false;
+        });
+
+        engine.runFor(60_000);
+
+        Assert.assertEquals(4 * SPEED_BETWEEN_FLOORS_MS, arrivalTime[0]);
+        Assert.assertEquals(5, elevator.currentFloor());
+        Assert.assertEquals(60_000, engine.getClock().now());
+    }
+
+    @Test
+    public void passengerTravelsToTargetFloor() {
+        Passenger passenger = new Passenger(1);
+        passenger.addStop(0);
+        passenger.addStop(7);
+
+        Elevator elevator = controller.requestElevator(0, Elevator.Direction.UP);
+        passenger.assignElevator(elevator);
+
+        engine.runFor(10 * 60_000);
+
+        Assert.assertFalse(passenger.isInElevator());
+        Assert.assertEquals(7, passenger.getCurrentFloor());
+        Assert.assertEquals(7, elevator.currentFloor());
+        Assert.assertEquals(0, elevator.getNrOfPassengers());
+    }
+
+    @Test
+    public void scheduledActionsRunInTimeOrder() {
+        List<Long> executed = new ArrayList<>();
+        engine.schedule(2000, () -> executed.add(engine.getClock().now()));
+        engine.schedule(1000, () -> executed.add(engine.getClock().now()));
+        engine.schedule(1000, () -> executed.add(-engine.getClock().now()));
+
+        engine.runUntil(1500);
+        Assert.assertEquals(2, executed.size());
+
+        engine.runUntil(2000);
+        Assert.assertArrayEquals(new Object[]{1000L, -1000L, 2000L}, executed.toArray());
+        Assert.assertEquals(0, engine.pendingEvents());
+    }
+
+    @Test
+    public void idleElevatorIsParkedUntilItGetsAStop() {
+        Elevator elevator = controller.requestElevator(3, Elevator.Direction.UP);
+        elevator.addElevatorListener(event -> {
+            elevator.leave();
+            return false;
+        });
+        engine.runFor(60_000);
+
+        Assert.assertEquals(0, engine.pendingEvents());
+        Assert.assertEquals(Elevator.Direction.NONE, elevator.getDirection());
+
+        elevator.moveElevator(1);
+        engine.runFor(60_000);
+
+        Assert.assertEquals(1, elevator.currentFloor());
+        Assert.assertEquals(0, engine.pendingEvents());
+    }
+
+    @Test
+    public void stoppedElevatorsAreNoLongerDriven() {
+        controller.requestElevator(9, Elevator.Direction.UP);
+        engine.runFor(10_000);
+
+        controller.stop();
+
+        Assert.assertEquals(0, engine.pendingEvents());
+    }
+
+    @Test
+    public void replayedPassengersAreReusedOnceDelivered() {
+        long[] times = new long[1000];
+        int[] fromFloors = new int[times.length];
+        int[] toFloors = new int[times.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i * 60_000L;
+            toFloors[i] = 5;
+        }
+        CallStream stream = new CallStream(times, fromFloors, toFloors, 1000 * 60_000L, 1 / 60.0);
+
+        PassengerPool passengers = stream.replay(engine, controller, false);
+        engine.runFor(stream.getDurationMs());
+
+        Assert.assertEquals(1000, passengers.getAcquired());
+        Assert.assertEquals(1000, passengers.getPickedUp());
+        Assert.assertEquals(1000, passengers.getDelivered());
+        Assert.assertEquals(1, passengers.getCreated());
+    }
+}